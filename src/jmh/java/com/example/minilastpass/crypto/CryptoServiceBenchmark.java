@@ -0,0 +1,72 @@
+package com.example.minilastpass.crypto;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoServiceBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int secretSize;
+
+    // noop vs prometheus shows what the seal/open timers cost on the hot path.
+    @Param({"noop", "prometheus"})
+    private String registry;
+
+    private CryptoService cryptoService;
+    private byte[] key;
+    private String secret;
+    private CryptoService.EncryptionResult encrypted;
+    private byte[] sealed;
+
+    @Setup
+    public void setUp() {
+        cryptoService = registry.equals("prometheus")
+            ? new CryptoService(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+            : new CryptoService(new CompositeMeterRegistry());
+        key = new byte[CryptoService.KEY_LENGTH];
+        new SecureRandom().nextBytes(key);
+        secret = "s".repeat(secretSize);
+        encrypted = cryptoService.encrypt(key, secret);
+        sealed = cryptoService.sealString(key, secret);
+    }
+
+    @Benchmark
+    public CryptoService.EncryptionResult encrypt() {
+        return cryptoService.encrypt(key, secret);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return cryptoService.decrypt(key, encrypted.ciphertextBase64(), encrypted.nonceBase64());
+    }
+
+    @Benchmark
+    public byte[] sealString() {
+        return cryptoService.sealString(key, secret);
+    }
+
+    @Benchmark
+    public String openString() {
+        return cryptoService.openString(key, sealed);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.minilastpass.crypto;
+
+import de.mkammerer.argon2.Argon2Advanced;
+import de.mkammerer.argon2.Argon2Factory;
+import de.mkammerer.argon2.Argon2Factory.Argon2Types;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// deriveKey runs with the production parameters; the parallelism sweep calls Argon2 directly with
+// the same iterations and memory so lane counts can be compared before changing KDF_PARALLELISM.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KdfBenchmark {
+
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    private final CryptoService cryptoService = new CryptoService();
+    private final char[] password = "correct horse battery staple".toCharArray();
+    private final byte[] salt = "benchmark-salt-0".getBytes(StandardCharsets.UTF_8);
+    private Argon2Advanced argon2;
+
+    @Setup
+    public void setUp() {
+        argon2 = Argon2Factory.createAdvanced(Argon2Types.ARGON2id, salt.length,
+            CryptoService.KEY_LENGTH);
+    }
+
+    @Benchmark
+    public byte[] deriveKey() {
+        return cryptoService.deriveKey(password, salt);
+    }
+
+    @Benchmark
+    public byte[] argon2WithParallelism() {
+        return argon2.pbkdf(CryptoService.KDF_ITERATIONS, CryptoService.KDF_MEMORY_KB, parallelism, password,
+            StandardCharsets.UTF_8, salt, CryptoService.KEY_LENGTH);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.minilastpass.rate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// keys = 1 puts every thread on the same CAS; larger values spread load like distinct logins.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private static final Duration WINDOW = Duration.ofSeconds(1);
+    private static final int MAX_ATTEMPTS = 1_000_000;
+
+    @Param({"1", "1024"})
+    private int keys;
+
+    private RateLimiterService rateLimiterService;
+    private String[] keyNames;
+
+    @Setup
+    public void setUp() {
+        rateLimiterService = new RateLimiterService(new InMemoryRateLimiterBackend(100_000, System::nanoTime),
+            new SimpleMeterRegistry());
+        keyNames = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            keyNames[i] = "login:user" + i + "@example.com";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        String nextKey(String[] keyNames) {
+            next = (next + 1) % keyNames.length;
+            return keyNames[next];
+        }
+    }
+
+    @Benchmark
+    public boolean tryConsume(Cursor cursor) {
+        return rateLimiterService.tryConsume(cursor.nextKey(keyNames), WINDOW, MAX_ATTEMPTS);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.minilastpass.security;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class DerivedKeyStoreBenchmark {
+
+    private static final int SESSIONS = 10_000;
+
+    private DerivedKeyStore store;
+    private String[] tokenIds;
+    private byte[] key;
+
+    @Setup
+    public void setUp() {
+        store = new DerivedKeyStore(SESSIONS, Duration.ofHours(1), System::nanoTime);
+        tokenIds = new String[SESSIONS];
+        key = new byte[32];
+        for (int i = 0; i < SESSIONS; i++) {
+            tokenIds[i] = "token-" + i;
+            store.put(tokenIds[i], key);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+
+        String nextToken(String[] tokenIds) {
+            next = (next + 7919) % tokenIds.length;
+            return tokenIds[next];
+        }
+    }
+
+    @Benchmark
+    public byte[] get(Cursor cursor) {
+        return store.get(cursor.nextToken(tokenIds));
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        store.put(cursor.nextToken(tokenIds), key);
+    }
+}
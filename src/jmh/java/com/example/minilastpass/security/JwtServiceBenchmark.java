@@ -0,0 +1,54 @@
+package com.example.minilastpass.security;
+
+import com.example.minilastpass.config.JwtProperties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// verifiedTokenCacheSize 0 measures full HMAC verification on every parse.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"0", "10000"})
+    private int verifiedTokenCacheSize;
+
+    private JwtService jwtService;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("benchmark-secret-benchmark-secret-0123456789");
+        properties.setExpirationMinutes(120);
+        properties.setVerifiedTokenCacheSize(verifiedTokenCacheSize);
+        jwtService = new JwtService(properties);
+        userId = UUID.randomUUID();
+        token = jwtService.generateToken(userId, "bench@example.com", UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken(userId, "bench@example.com", "token-id");
+    }
+
+    @Benchmark
+    public VerifiedToken parse() {
+        return jwtService.parse(token);
+    }
+}
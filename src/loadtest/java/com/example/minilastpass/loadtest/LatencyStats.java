@@ -0,0 +1,57 @@
+package com.example.minilastpass.loadtest;
+
+import java.util.Arrays;
+
+// Raw per-request latencies for one endpoint. Each virtual user owns its own instance, so recording
+// needs no synchronization; instances are merged once the run ends.
+final class LatencyStats {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private int throttled;
+    private int errors;
+
+    void record(long nanos, int status) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (status == 429) {
+            throttled++;
+        } else if (status < 200 || status >= 400) {
+            errors++;
+        }
+    }
+
+    void merge(LatencyStats other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        throttled += other.throttled;
+        errors += other.errors;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int throttled() {
+        return throttled;
+    }
+
+    int errors() {
+        return errors;
+    }
+
+    // Nearest-rank percentile in milliseconds; sorts the samples in place.
+    double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        Arrays.sort(samples, 0, count);
+        int rank = (int) Math.ceil(percentile / 100.0 * count);
+        return samples[Math.max(0, Math.min(count, rank) - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.minilastpass.loadtest;
+
+import com.example.minilastpass.MiniLastpassApplication;
+import com.example.minilastpass.crypto.CryptoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Boots the app on an in-memory H2 database and a random port, bulk-seeds synthetic vaults and drives
+// them over HTTP. Run with: mvn -Ploadtest -DskipTests verify -Dloadtest.args="--users=50 --duration=60s"
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniLastpassApplication.class)
+            .run("--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.h2.console.enabled=false",
+                "--spring.threads.virtual.enabled=" + options.serverThreads().equals("virtual"),
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.minilastpass=WARN")) {
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+            long seedStart = System.nanoTime();
+            List<VaultSeeder.SeededUser> users = new VaultSeeder(context.getBean(JdbcTemplate.class),
+                context.getBean(CryptoService.class)).seed(options.users(), options.items());
+            System.out.printf("Seeded %d users x %d items in %d ms%n", options.users(), options.items(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            Map<String, LatencyStats> merged = run(options, baseUri, users);
+            report(options, merged);
+        }
+    }
+
+    private static Map<String, LatencyStats> run(LoadTestOptions options, URI baseUri,
+                                                 List<VaultSeeder.SeededUser> users) throws InterruptedException {
+        List<String> weighted = new ArrayList<>();
+        options.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        String[] weightedScenarios = weighted.toArray(String[]::new);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + options.duration().toNanos();
+        List<VirtualUser> virtualUsers = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(options.virtualUsers());
+        for (int i = 0; i < options.virtualUsers(); i++) {
+            VirtualUser virtualUser = new VirtualUser(client, baseUri, users.get(i % users.size()), weightedScenarios,
+                deadline);
+            virtualUsers.add(virtualUser);
+            pool.submit(virtualUser);
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(options.duration().toSeconds() + 60, TimeUnit.SECONDS)) {
+            pool.shutdownNow();
+        }
+        Map<String, LatencyStats> merged = new TreeMap<>();
+        for (VirtualUser virtualUser : virtualUsers) {
+            virtualUser.stats().forEach((scenario, stats) ->
+                merged.computeIfAbsent(scenario, s -> new LatencyStats()).merge(stats));
+        }
+        return merged;
+    }
+
+    private static void report(LoadTestOptions options, Map<String, LatencyStats> merged) throws IOException {
+        double seconds = options.duration().toMillis() / 1000.0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-12s %9s %9s %9s %10s %9s %9s %9s%n", "scenario", "requests", "429", "errors",
+            "req/s", "p50 ms", "p99 ms", "p99.9 ms");
+        merged.forEach((scenario, stats) -> {
+            double p50 = stats.percentileMillis(50);
+            double p99 = stats.percentileMillis(99);
+            double p999 = stats.percentileMillis(99.9);
+            System.out.printf("%-12s %9d %9d %9d %10.1f %9.2f %9.2f %9.2f%n", scenario, stats.count(),
+                stats.throttled(), stats.errors(), stats.count() / seconds, p50, p99, p999);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("requests", stats.count());
+            row.put("throttled", stats.throttled());
+            row.put("errors", stats.errors());
+            row.put("throughputPerSecond", stats.count() / seconds);
+            row.put("p50Millis", p50);
+            row.put("p99Millis", p99);
+            row.put("p999Millis", p999);
+            endpoints.put(scenario, row);
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", options.users());
+        report.put("itemsPerUser", options.items());
+        report.put("virtualUsers", options.virtualUsers());
+        report.put("serverThreads", options.serverThreads());
+        report.put("durationSeconds", seconds);
+        report.put("mix", options.mix());
+        report.put("endpoints", endpoints);
+        if (options.report().getParent() != null) {
+            Files.createDirectories(options.report().getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(options.report().toFile(), report);
+        System.out.println("Report written to " + options.report().toAbsolutePath());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.minilastpass.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// --users=20 --items=200 --virtual-users=16 --duration=30s --mix=list:6,page:3,search:2,reveal:1,login:1
+// --server-threads=platform|virtual
+record LoadTestOptions(int users, int items, int virtualUsers, Duration duration, Map<String, Integer> mix,
+                       String serverThreads, Path report) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("users", "20");
+        values.put("items", "200");
+        values.put("virtual-users", "16");
+        values.put("duration", "30s");
+        values.put("mix", "list:6,page:3,search:2,reveal:1,login:1");
+        values.put("server-threads", "platform");
+        values.put("report", "target/loadtest-report.json");
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!values.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + "; known: " + values.keySet());
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+        String serverThreads = values.get("server-threads");
+        if (!serverThreads.equals("platform") && !serverThreads.equals("virtual")) {
+            throw new IllegalArgumentException("--server-threads must be platform or virtual");
+        }
+        return new LoadTestOptions(
+            Integer.parseInt(values.get("users")),
+            Integer.parseInt(values.get("items")),
+            Integer.parseInt(values.get("virtual-users")),
+            parseDuration(values.get("duration")),
+            parseMix(values.get("mix")),
+            serverThreads,
+            Path.of(values.get("report")));
+    }
+
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":", 2);
+            String scenario = parts[0].trim();
+            if (!VirtualUser.SCENARIOS.contains(scenario)) {
+                throw new IllegalArgumentException("Unknown scenario " + scenario + "; known: " + VirtualUser.SCENARIOS);
+            }
+            mix.put(scenario, parts.length == 1 ? 1 : Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
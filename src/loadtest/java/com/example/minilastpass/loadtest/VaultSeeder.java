@@ -0,0 +1,78 @@
+package com.example.minilastpass.loadtest;
+
+import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.user.UserEntity;
+import java.security.SecureRandom;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Bulk loader for synthetic vaults. All seeded users share one password and salt so Argon2 runs once
+// instead of once per user; rows go in through JDBC batches instead of the API.
+final class VaultSeeder {
+
+    static final String PASSWORD = "load-test-password";
+    static final String[] WORDS = {"bank", "mail", "shop", "cloud", "social", "travel", "music", "news",
+        "forum", "work", "school", "health", "games", "photos", "video", "crypto"};
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoService cryptoService;
+
+    VaultSeeder(JdbcTemplate jdbcTemplate, CryptoService cryptoService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cryptoService = cryptoService;
+    }
+
+    List<SeededUser> seed(int users, int itemsPerUser) {
+        byte[] salt = new byte[16];
+        new SecureRandom().nextBytes(salt);
+        CryptoService.DerivedKeys keys = cryptoService.deriveKeys(PASSWORD.toCharArray(), salt);
+        String verifier = Base64.getEncoder().encodeToString(keys.authVerifier());
+        String saltBase64 = Base64.getEncoder().encodeToString(salt);
+        Timestamp now = Timestamp.from(Instant.now());
+
+        List<SeededUser> seeded = new ArrayList<>(users);
+        List<Object[]> userRows = new ArrayList<>();
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            UUID userId = UUID.randomUUID();
+            String email = "load-" + u + "@example.test";
+            byte[] dataKey = cryptoService.newDataKey();
+            userRows.add(new Object[] {userId, email, verifier, saltBase64, UserEntity.KDF_VERSION_SINGLE_PASS,
+                cryptoService.wrapDataKey(keys.vaultKey(), dataKey), itemsPerUser, now});
+            UUID[] itemIds = new UUID[itemsPerUser];
+            for (int i = 0; i < itemsPerUser; i++) {
+                itemIds[i] = UUID.randomUUID();
+                String word = WORDS[i % WORDS.length];
+                Timestamp createdAt = Timestamp.from(now.toInstant().plusMillis(i));
+                itemRows.add(new Object[] {itemIds[i], userId, word + " account " + i, "user" + i + "@" + word + ".test",
+                    "https://login." + word + i % 50 + ".example.com/", cryptoService.sealString(dataKey,
+                    "secret-" + u + "-" + i), i + 1L, createdAt, createdAt});
+            }
+            seeded.add(new SeededUser(email, itemIds));
+        }
+        jdbcTemplate.batchUpdate("insert into users (id, email, password_hash, kdf_salt_base64, kdf_version, "
+            + "wrapped_data_key, vault_revision, created_at) values (?, ?, ?, ?, ?, ?, ?, ?)", userRows, BATCH_SIZE,
+            VaultSeeder::setAll);
+        jdbcTemplate.batchUpdate("insert into vault_items (id, user_id, title, username, url, "
+            + "encrypted_secret_base64, nonce_base64, sealed_secret, revision, deleted, created_at, updated_at) "
+            + "values (?, ?, ?, ?, ?, '', '', ?, ?, false, ?, ?)", itemRows, BATCH_SIZE,
+            VaultSeeder::setAll);
+        return seeded;
+    }
+
+    private static void setAll(PreparedStatement ps, Object[] row) throws SQLException {
+        for (int i = 0; i < row.length; i++) {
+            ps.setObject(i + 1, row[i]);
+        }
+    }
+
+    record SeededUser(String email, UUID[] itemIds) { }
+}
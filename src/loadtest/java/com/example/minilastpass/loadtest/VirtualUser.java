@@ -0,0 +1,111 @@
+package com.example.minilastpass.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Logs in as one seeded user, then issues weighted random requests until the deadline.
+final class VirtualUser implements Runnable {
+
+    static final List<String> SCENARIOS = List.of("login", "list", "page", "search", "reveal", "reveal-batch");
+    private static final int REVEAL_BATCH_SIZE = 100;
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final VaultSeeder.SeededUser user;
+    private final String[] weightedScenarios;
+    private final long deadlineNanos;
+    private final Map<String, LatencyStats> stats = new HashMap<>();
+    private String authCookie;
+
+    VirtualUser(HttpClient client, URI baseUri, VaultSeeder.SeededUser user, String[] weightedScenarios,
+                long deadlineNanos) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.user = user;
+        this.weightedScenarios = weightedScenarios;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    Map<String, LatencyStats> stats() {
+        return stats;
+    }
+
+    @Override
+    public void run() {
+        execute("login");
+        while (System.nanoTime() < deadlineNanos) {
+            execute(weightedScenarios[ThreadLocalRandom.current().nextInt(weightedScenarios.length)]);
+        }
+    }
+
+    private void execute(String scenario) {
+        HttpRequest request = buildRequest(scenario);
+        long start = System.nanoTime();
+        int status;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+            if ("login".equals(scenario) && status == 200) {
+                response.headers().allValues("Set-Cookie").stream()
+                    .filter(cookie -> cookie.startsWith("AUTH_TOKEN="))
+                    .findFirst()
+                    .ifPresent(cookie -> authCookie = cookie.substring(0, cookie.indexOf(';')));
+            }
+        } catch (IOException ex) {
+            status = -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        stats.computeIfAbsent(scenario, s -> new LatencyStats()).record(System.nanoTime() - start, status);
+    }
+
+    private HttpRequest buildRequest(String scenario) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if ("login".equals(scenario)) {
+            String body = "{\"email\":\"" + user.email() + "\",\"password\":\"" + VaultSeeder.PASSWORD + "\"}";
+            return HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        }
+        if ("reveal-batch".equals(scenario)) {
+            StringJoiner ids = new StringJoiner("\",\"", "{\"ids\":[\"", "\"]}");
+            for (int i = 0; i < REVEAL_BATCH_SIZE; i++) {
+                ids.add(randomItem(random).toString());
+            }
+            return withCookie(HttpRequest.newBuilder(baseUri.resolve("/api/vault/reveal"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ids.toString())));
+        }
+        String path = switch (scenario) {
+            case "list" -> "/api/vault";
+            case "page" -> "/api/vault?limit=50";
+            case "search" -> "/api/vault/search?q=" + VaultSeeder.WORDS[random.nextInt(VaultSeeder.WORDS.length)];
+            case "reveal" -> "/api/vault/" + randomItem(random) + "/reveal";
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+        };
+        return withCookie(HttpRequest.newBuilder(baseUri.resolve(path)).GET());
+    }
+
+    private HttpRequest withCookie(HttpRequest.Builder builder) {
+        if (authCookie != null) {
+            builder.header("Cookie", authCookie);
+        }
+        return builder.build();
+    }
+
+    private UUID randomItem(ThreadLocalRandom random) {
+        UUID[] items = user.itemIds();
+        return items.length == 0 ? UUID.randomUUID() : items[random.nextInt(items.length)];
+    }
+}
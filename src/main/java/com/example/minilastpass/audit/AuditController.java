@@ -0,0 +1,31 @@
+package com.example.minilastpass.audit;
+
+import com.example.minilastpass.security.SecurityUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    private final AuditService auditService;
+
+    public AuditController(AuditService auditService) {
+        this.auditService = auditService;
+    }
+
+    @GetMapping
+    public AuditEventPage list(@AuthenticationPrincipal SecurityUser user,
+                               @RequestParam(value = "after", required = false) String after,
+                               @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        return auditService.listPage(user, after, limit);
+    }
+}
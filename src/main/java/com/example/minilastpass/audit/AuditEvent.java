@@ -0,0 +1,8 @@
+package com.example.minilastpass.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+
+record AuditEvent(UUID id, Instant occurredAt, UUID userId, AuditEventType type, UUID itemId, int itemCount,
+                  String ipAddress, String detail) {
+}
@@ -0,0 +1,74 @@
+package com.example.minilastpass.audit;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+
+// Append-only: rows are inserted in batches by AuditLog over JDBC and never updated. user_id carries no
+// foreign key so the trail outlives the account and inserts never wait on the users table.
+@Entity
+@Table(name = "audit_events",
+    indexes = @Index(name = "idx_audit_events_user_occurred_id", columnList = "user_id, occurred_at, id"))
+public class AuditEventEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private AuditEventType eventType;
+
+    private UUID itemId;
+
+    @Column(nullable = false)
+    private int itemCount;
+
+    @Column(length = 45)
+    private String ipAddress;
+
+    @Column(length = 320)
+    private String detail;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public AuditEventType getEventType() {
+        return eventType;
+    }
+
+    public UUID getItemId() {
+        return itemId;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.minilastpass.audit;
+
+import java.util.List;
+
+public class AuditEventPage {
+
+    private List<AuditEventView> items;
+    private String nextCursor;
+
+    public AuditEventPage(List<AuditEventView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AuditEventView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.minilastpass.audit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuditEventRepository extends JpaRepository<AuditEventEntity, UUID> {
+
+    @Query("select e from AuditEventEntity e where e.userId = :userId order by e.occurredAt desc, e.id desc")
+    List<AuditEventEntity> findLatest(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("select e from AuditEventEntity e where e.userId = :userId "
+        + "and (e.occurredAt < :occurredAt or (e.occurredAt = :occurredAt and e.id < :id)) "
+        + "order by e.occurredAt desc, e.id desc")
+    List<AuditEventEntity> findBefore(@Param("userId") UUID userId, @Param("occurredAt") Instant occurredAt,
+                                      @Param("id") UUID id, Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package com.example.minilastpass.audit;
+
+public enum AuditEventType {
+    SIGNUP,
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    PASSWORD_CHANGED,
+    PASSWORD_CHANGE_FAILED,
+    SECRET_REVEALED,
+    SECRETS_REVEALED,
+    ITEM_DELETED
+}
@@ -0,0 +1,56 @@
+package com.example.minilastpass.audit;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AuditEventView {
+
+    private UUID id;
+    private AuditEventType type;
+    private Instant occurredAt;
+    private UUID itemId;
+    private int itemCount;
+    private String ipAddress;
+    private String detail;
+
+    public AuditEventView(UUID id, AuditEventType type, Instant occurredAt, UUID itemId, int itemCount,
+                          String ipAddress, String detail) {
+        this.id = id;
+        this.type = type;
+        this.occurredAt = occurredAt;
+        this.itemId = itemId;
+        this.itemCount = itemCount;
+        this.ipAddress = ipAddress;
+        this.detail = detail;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public AuditEventType getType() {
+        return type;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public UUID getItemId() {
+        return itemId;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
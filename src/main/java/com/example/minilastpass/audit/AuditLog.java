@@ -0,0 +1,188 @@
+package com.example.minilastpass.audit;
+
+import com.example.minilastpass.config.AuditProperties;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Append-only audit trail. Callers only publish into a bounded in-memory ring; a single writer thread
+// drains it into audit_events with JDBC batch inserts, so no request ever waits on audit I/O. When the
+// ring is full the event is dropped (after at most overflow-wait under the "wait" policy) and counted.
+@Component
+public class AuditLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+    private static final String INSERT = "insert into audit_events (id, occurred_at, user_id, event_type, item_id, "
+        + "item_count, ip_address, detail) values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int MAX_IP_LENGTH = 45;
+    private static final int MAX_DETAIL_LENGTH = 320;
+    private static final long OVERFLOW_BACKOFF_NANOS = 50_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditRingBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final boolean waitOnOverflow;
+    private final long overflowWaitNanos;
+    // The ring allows one consumer; the writer thread holds this while draining, as does a shutdown flush.
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final List<AuditEvent> batch;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(JdbcTemplate jdbcTemplate, AuditProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer(properties.getBufferCapacity());
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.waitOnOverflow = "wait".equals(properties.getOverflow());
+        this.overflowWaitNanos = properties.getOverflowWait().toNanos();
+        this.batch = new ArrayList<>(batchSize);
+        this.writer = new Thread(this::run, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(AuditEventType type, UUID userId, String ipAddress) {
+        record(type, userId, null, 0, ipAddress, null);
+    }
+
+    // Inside a read-write transaction the event is published once it commits, so a rolled-back delete
+    // leaves no trail.
+    public void record(AuditEventType type, UUID userId, UUID itemId, int itemCount, String ipAddress, String detail) {
+        AuditEvent event = new AuditEvent(UUID.randomUUID(), Instant.now(), userId, type, itemId, itemCount,
+            truncate(ipAddress, MAX_IP_LENGTH), truncate(detail, MAX_DETAIL_LENGTH));
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(event);
+                }
+            });
+            return;
+        }
+        publish(event);
+    }
+
+    private void publish(AuditEvent event) {
+        if (buffer.offer(event)) {
+            // Past half full, wake the writer instead of letting the ring fill before its next pass.
+            if (buffer.size() > buffer.capacity() >> 1) {
+                LockSupport.unpark(writer);
+            }
+            return;
+        }
+        LockSupport.unpark(writer);
+        if (waitOnOverflow) {
+            long deadline = System.nanoTime() + overflowWaitNanos;
+            while (System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(OVERFLOW_BACKOFF_NANOS);
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(5_000);
+        flush();
+    }
+
+    // Writes everything published so far; returns the number of events taken off the ring.
+    int flush() {
+        drainLock.lock();
+        try {
+            int total = 0;
+            int drained;
+            do {
+                drained = buffer.drainTo(batch, batchSize);
+                if (drained > 0) {
+                    write(batch);
+                    batch.clear();
+                    total += drained;
+                }
+            } while (drained == batchSize);
+            return total;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                flush();
+            } catch (RuntimeException ex) {
+                log.error("Audit writer pass failed", ex);
+            }
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+    }
+
+    // A failed batch is counted and logged rather than retried, so a database outage cannot back the
+    // ring up into the request path.
+    private void write(List<AuditEvent> events) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+                statement.setObject(1, event.id());
+                statement.setTimestamp(2, Timestamp.from(event.occurredAt()));
+                statement.setObject(3, event.userId());
+                statement.setString(4, event.type().name());
+                statement.setObject(5, event.itemId());
+                statement.setInt(6, event.itemCount());
+                statement.setString(7, event.ipAddress());
+                statement.setString(8, event.detail());
+            });
+            written.add(events.size());
+        } catch (DataAccessException ex) {
+            failed.add(events.size());
+            log.warn("Failed to write {} audit events", events.size(), ex);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.minilastpass.audit;
+
+import com.example.minilastpass.common.PageCursor;
+import com.example.minilastpass.security.SecurityUser;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class AuditService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final AuditEventRepository auditEventRepository;
+
+    public AuditService(AuditEventRepository auditEventRepository) {
+        this.auditEventRepository = auditEventRepository;
+    }
+
+    // Newest first. Events still in AuditLog's buffer show up once the writer's next pass commits them.
+    @Transactional(readOnly = true)
+    public AuditEventPage listPage(SecurityUser user, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Pageable window = PageRequest.ofSize(limit + 1);
+        List<AuditEventEntity> rows;
+        if (after == null || after.isBlank()) {
+            rows = auditEventRepository.findLatest(user.getId(), window);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            rows = auditEventRepository.findBefore(user.getId(), cursor.timestamp(), cursor.id(), window);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<AuditEventView> items = rows.stream()
+            .limit(limit)
+            .map(row -> new AuditEventView(row.getId(), row.getEventType(), row.getOccurredAt(), row.getItemId(),
+                row.getItemCount(), row.getIpAddress(), row.getDetail()))
+            .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            AuditEventView last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getOccurredAt(), last.getId()).encode();
+        }
+        return new AuditEventPage(items, nextCursor);
+    }
+}
@@ -4,6 +4,7 @@ import com.example.minilastpass.config.JwtProperties;
 import com.example.minilastpass.security.JwtAuthenticationFilter;
 import com.example.minilastpass.security.JwtService;
 import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.vault.VaultKeyRotationProgress;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -46,25 +47,49 @@ public class AuthController {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<AuthResponse> signup(@Valid @RequestBody SignupRequest request) {
-        AuthResponse response = authService.signup(request);
+    public ResponseEntity<AuthResponse> signup(@Valid @RequestBody SignupRequest request,
+                                               HttpServletRequest httpRequest) {
+        AuthResponse response = authService.signup(request, httpRequest.getRemoteAddr());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletResponse response) {
-        AuthService.LoginResult result = authService.login(request);
-        ResponseCookie cookie = ResponseCookie.from(JwtAuthenticationFilter.AUTH_COOKIE, result.token())
-            .httpOnly(true)
-            .secure(false)
-            .sameSite("Lax")
-            .maxAge(Duration.ofMinutes(jwtProperties.getExpirationMinutes()))
-            .path("/")
-            .build();
-        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request,
+                                              HttpServletRequest httpRequest, HttpServletResponse response) {
+        AuthService.LoginResult result = authService.login(request, httpRequest.getRemoteAddr());
+        response.addHeader(HttpHeaders.SET_COOKIE, authCookie(result.token()).toString());
         return ResponseEntity.ok(result.profile());
     }
 
+    // Other sessions are revoked; this one continues on a new token. The body reports any vault
+    // re-encryption still running, which GET /key-rotation keeps tracking.
+    @PostMapping("/change-password")
+    public ResponseEntity<VaultKeyRotationProgress> changePassword(@AuthenticationPrincipal SecurityUser user,
+                                                                   @Valid @RequestBody ChangePasswordRequest request,
+                                                                   HttpServletRequest httpRequest,
+                                                                   HttpServletResponse response) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        String tokenId = resolveToken(httpRequest).map(jwtService::extractTokenId).orElse(null);
+        AuthService.PasswordChangeResult result = authService.changePassword(user, tokenId, request,
+            httpRequest.getRemoteAddr());
+        response.addHeader(HttpHeaders.SET_COOKIE, authCookie(result.token()).toString());
+        if (result.rotation() == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(result.rotation());
+    }
+
+    @GetMapping("/key-rotation")
+    public ResponseEntity<VaultKeyRotationProgress> keyRotation(@AuthenticationPrincipal SecurityUser user) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        VaultKeyRotationProgress progress = authService.keyRotationProgress(user);
+        return progress == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(progress);
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<Void> logout(HttpServletRequest request, HttpServletResponse response) {
         Optional<String> token = resolveToken(request);
@@ -85,6 +110,16 @@ public class AuthController {
         return ResponseEntity.noContent().build();
     }
 
+    private ResponseCookie authCookie(String token) {
+        return ResponseCookie.from(JwtAuthenticationFilter.AUTH_COOKIE, token)
+            .httpOnly(true)
+            .secure(false)
+            .sameSite("Lax")
+            .maxAge(Duration.ofMinutes(jwtProperties.getExpirationMinutes()))
+            .path("/")
+            .build();
+    }
+
     private Optional<String> resolveToken(HttpServletRequest request) {
         if (request.getCookies() == null) {
             return Optional.empty();
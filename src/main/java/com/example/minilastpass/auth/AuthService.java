@@ -1,22 +1,33 @@
 package com.example.minilastpass.auth;
 
+import com.example.minilastpass.audit.AuditEventType;
+import com.example.minilastpass.audit.AuditLog;
 import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.crypto.KdfExecutor;
 import com.example.minilastpass.rate.RateLimiterService;
 import com.example.minilastpass.security.DerivedKeyStore;
 import com.example.minilastpass.security.JwtService;
+import com.example.minilastpass.security.RevokedUserRegistry;
+import com.example.minilastpass.security.SecurityUser;
 import com.example.minilastpass.user.UserEntity;
 import com.example.minilastpass.user.UserRepository;
+import com.example.minilastpass.vault.VaultKeyRotation;
+import com.example.minilastpass.vault.VaultKeyRotationProgress;
 import de.mkammerer.argon2.Argon2;
 import de.mkammerer.argon2.Argon2Factory;
 import de.mkammerer.argon2.Argon2Factory.Argon2Types;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.UUID;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
@@ -30,63 +41,110 @@ public class AuthService {
     private final DerivedKeyStore derivedKeyStore;
     private final CryptoService cryptoService;
     private final RateLimiterService rateLimiterService;
+    private final KdfExecutor kdfExecutor;
+    private final RevokedUserRegistry revokedUserRegistry;
+    private final VaultKeyRotation vaultKeyRotation;
+    private final AuditLog auditLog;
     private final SecureRandom secureRandom = new SecureRandom();
+    // End to end, including time queued for a KDF worker; CryptoService times the Argon2 run itself.
+    private final Timer signupKdfTimer;
+    private final Timer loginKdfTimer;
+    private final Timer legacyVerifyTimer;
+    private final Timer changePasswordKdfTimer;
 
     public AuthService(UserRepository userRepository, JwtService jwtService, DerivedKeyStore derivedKeyStore,
-                       CryptoService cryptoService, RateLimiterService rateLimiterService) {
+                       CryptoService cryptoService, RateLimiterService rateLimiterService,
+                       KdfExecutor kdfExecutor, RevokedUserRegistry revokedUserRegistry,
+                       VaultKeyRotation vaultKeyRotation, AuditLog auditLog, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
         this.derivedKeyStore = derivedKeyStore;
         this.cryptoService = cryptoService;
         this.rateLimiterService = rateLimiterService;
+        this.kdfExecutor = kdfExecutor;
+        this.revokedUserRegistry = revokedUserRegistry;
+        this.vaultKeyRotation = vaultKeyRotation;
+        this.auditLog = auditLog;
+        this.signupKdfTimer = Timer.builder("minilastpass.auth.kdf").tag("operation", "signup")
+            .description("Signup key derivation including KDF queue wait").register(meterRegistry);
+        this.loginKdfTimer = Timer.builder("minilastpass.auth.kdf").tag("operation", "login")
+            .description("Login verification including KDF queue wait").register(meterRegistry);
+        this.legacyVerifyTimer = Timer.builder("minilastpass.crypto.kdf").tag("operation", "verify")
+            .description("Argon2id verification of legacy password hashes").register(meterRegistry);
+        this.changePasswordKdfTimer = Timer.builder("minilastpass.auth.kdf").tag("operation", "change-password")
+            .description("Password change verification and new key derivation including KDF queue wait")
+            .register(meterRegistry);
     }
 
-    @Transactional
     public AuthResponse signup(SignupRequest request) {
+        return signup(request, null);
+    }
+
+    // Not transactional on purpose: no connection is held while the KDF pool is busy hashing.
+    public AuthResponse signup(SignupRequest request, String ipAddress) {
         String normalizedEmail = request.getEmail().toLowerCase();
-        if (userRepository.existsByEmailIgnoreCase(normalizedEmail)) {
+        if (userRepository.existsByEmail(normalizedEmail)) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already registered");
         }
         byte[] kdfSalt = new byte[16];
         secureRandom.nextBytes(kdfSalt);
-        String passwordHash = hashPassword(request.getPassword());
+        CryptoService.DerivedKeys keys = signupKdfTimer.record(() -> kdfExecutor.execute(
+            () -> cryptoService.deriveKeys(request.getPassword().toCharArray(), kdfSalt)));
+        byte[] dataKey = cryptoService.newDataKey();
+        byte[] wrappedDataKey = cryptoService.wrapDataKey(keys.vaultKey(), dataKey);
+        Arrays.fill(dataKey, (byte) 0);
+        Arrays.fill(keys.vaultKey(), (byte) 0);
         UserEntity user = new UserEntity();
         user.setEmail(normalizedEmail);
-        user.setPasswordHash(passwordHash);
+        user.setPasswordHash(Base64.getEncoder().encodeToString(keys.authVerifier()));
         user.setKdfSaltBase64(Base64.getEncoder().encodeToString(kdfSalt));
-        UserEntity saved = userRepository.save(user);
-        return new AuthResponse(saved.getId(), saved.getEmail());
+        user.setKdfVersion(UserEntity.KDF_VERSION_SINGLE_PASS);
+        user.setWrappedDataKey(wrappedDataKey);
+        try {
+            UserEntity saved = userRepository.save(user);
+            auditLog.record(AuditEventType.SIGNUP, saved.getId(), ipAddress);
+            return new AuthResponse(saved.getId(), saved.getEmail());
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email already registered");
+        }
     }
 
-    @Transactional(readOnly = true)
     public LoginResult login(LoginRequest request) {
+        return login(request, null);
+    }
+
+    public LoginResult login(LoginRequest request, String ipAddress) {
         String normalizedEmail = request.getEmail().toLowerCase();
         if (!rateLimiterService.tryConsume("login:" + normalizedEmail, LOGIN_WINDOW, LOGIN_MAX_ATTEMPTS)) {
             throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
         }
-        UserEntity user = userRepository.findByEmailIgnoreCase(normalizedEmail)
+        // Failures against unknown accounts are not audited: no user could ever read them back, and
+        // anonymous clients could fill the table with whatever emails they choose.
+        UserEntity user = userRepository.findByEmail(normalizedEmail)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
-        char[] passwordChars = request.getPassword().toCharArray();
-        char[] passwordCopy = passwordChars.clone();
-        boolean verified;
-        Argon2 argon2 = Argon2Factory.create(Argon2Types.ARGON2id);
-        try {
-            verified = argon2.verify(user.getPasswordHash(), passwordChars);
-        } finally {
-            argon2.wipeArray(passwordChars);
-        }
-        if (!verified) {
+        byte[] kdfSalt = Base64.getDecoder().decode(user.getKdfSaltBase64());
+        boolean legacy = user.getKdfVersion() < UserEntity.KDF_VERSION_SINGLE_PASS;
+        byte[] derivedKey = loginKdfTimer.record(() -> kdfExecutor.execute(
+            () -> verifyPassword(user, kdfSalt, request.getPassword())));
+        if (derivedKey == null) {
+            auditLog.record(AuditEventType.LOGIN_FAILED, user.getId(), ipAddress);
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
         }
-        byte[] derivedKey;
+        if (legacy) {
+            String verifier = Base64.getEncoder().encodeToString(cryptoService.authVerifier(derivedKey, kdfSalt));
+            userRepository.upgradeKdfVersion(user.getId(), verifier, UserEntity.KDF_VERSION_SINGLE_PASS);
+        }
+        byte[] vaultKey;
         try {
-            derivedKey = cryptoService.deriveKey(passwordCopy, Base64.getDecoder().decode(user.getKdfSaltBase64()));
+            vaultKey = openVault(user, derivedKey);
         } finally {
-            Arrays.fill(passwordCopy, '\0');
+            Arrays.fill(derivedKey, (byte) 0);
         }
         String tokenId = UUID.randomUUID().toString();
-        derivedKeyStore.put(tokenId, derivedKey);
+        derivedKeyStore.put(tokenId, vaultKey);
+        Arrays.fill(vaultKey, (byte) 0);
         String token = jwtService.generateToken(user.getId(), user.getEmail(), tokenId);
+        auditLog.record(AuditEventType.LOGIN_SUCCEEDED, user.getId(), ipAddress);
         return new LoginResult(token, tokenId, new AuthResponse(user.getId(), user.getEmail()));
     }
 
@@ -96,15 +154,137 @@ public class AuthService {
         }
     }
 
-    private String hashPassword(String password) {
-        Argon2 argon2 = Argon2Factory.create(Argon2Types.ARGON2id);
+    // Rewraps the data key under a key derived from the new password and a fresh salt; vault items are
+    // not touched. Every other session is revoked and the caller continues on a new token.
+    public PasswordChangeResult changePassword(SecurityUser principal, String tokenId,
+                                               ChangePasswordRequest request, String ipAddress) {
+        if (!rateLimiterService.tryConsume("password:" + principal.getId(), LOGIN_WINDOW, LOGIN_MAX_ATTEMPTS)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many password change attempts");
+        }
+        UserEntity user = userRepository.findById(principal.getId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        if (user.getWrappedDataKey() == null && user.getRetiredVaultKey() != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "The vault is still being re-encrypted; try again once it completes");
+        }
+        byte[] kdfSalt = Base64.getDecoder().decode(user.getKdfSaltBase64());
+        byte[] newSalt = new byte[16];
+        secureRandom.nextBytes(newSalt);
+        byte[] passwordKey = changePasswordKdfTimer.record(() -> kdfExecutor.execute(
+            () -> verifyPassword(user, kdfSalt, request.getCurrentPassword())));
+        if (passwordKey == null) {
+            auditLog.record(AuditEventType.PASSWORD_CHANGE_FAILED, user.getId(), ipAddress);
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Current password is incorrect");
+        }
+        byte[] dataKey = null;
+        CryptoService.DerivedKeys keys = null;
+        try {
+            dataKey = openVault(user, passwordKey);
+            keys = changePasswordKdfTimer.record(() -> kdfExecutor.execute(
+                () -> cryptoService.deriveKeys(request.getNewPassword().toCharArray(), newSalt)));
+            int updated = userRepository.rewrapDataKey(user.getId(),
+                Base64.getEncoder().encodeToString(keys.authVerifier()), Base64.getEncoder().encodeToString(newSalt),
+                UserEntity.KDF_VERSION_SINGLE_PASS, cryptoService.wrapDataKey(keys.vaultKey(), dataKey),
+                user.getPasswordHash());
+            if (updated != 1) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Password was changed concurrently");
+            }
+            revokedUserRegistry.revokeTokensIssuedBefore(user.getId(), Instant.now());
+            logout(tokenId);
+            String newTokenId = UUID.randomUUID().toString();
+            derivedKeyStore.put(newTokenId, dataKey);
+            String token = jwtService.generateToken(user.getId(), user.getEmail(), newTokenId);
+            auditLog.record(AuditEventType.PASSWORD_CHANGED, user.getId(), ipAddress);
+            return new PasswordChangeResult(token, newTokenId, vaultKeyRotation.progress(user.getId()));
+        } finally {
+            Arrays.fill(passwordKey, (byte) 0);
+            if (dataKey != null) {
+                Arrays.fill(dataKey, (byte) 0);
+            }
+            if (keys != null) {
+                Arrays.fill(keys.vaultKey(), (byte) 0);
+                Arrays.fill(keys.authVerifier(), (byte) 0);
+            }
+        }
+    }
+
+    public VaultKeyRotationProgress keyRotationProgress(SecurityUser principal) {
+        return vaultKeyRotation.progress(principal.getId());
+    }
+
+    // Returns the key items are sealed under. Accounts from before envelope encryption get a data key
+    // here; their items, sealed directly under the password-derived key, are re-encrypted under it in
+    // the background and stay readable through the retired key meanwhile.
+    private byte[] openVault(UserEntity user, byte[] passwordKey) {
+        if (user.getWrappedDataKey() != null) {
+            byte[] dataKey = cryptoService.unwrapDataKey(passwordKey, user.getWrappedDataKey());
+            vaultKeyRotation.resume(user, dataKey);
+            return dataKey;
+        }
+        if (user.getRetiredVaultKey() != null) {
+            // A rotation that predates the data key finishes under the password-derived key first.
+            vaultKeyRotation.resume(user, passwordKey);
+            return passwordKey.clone();
+        }
+        byte[] dataKey = cryptoService.newDataKey();
+        int keyVersion = user.getVaultKeyVersion() + 1;
+        int updated = userRepository.adoptDataKey(user.getId(), cryptoService.wrapDataKey(passwordKey, dataKey),
+            user.getVaultKeyVersion(), vaultKeyRotation.wrapRetiredKey(user.getId(), keyVersion, passwordKey, dataKey));
+        if (updated != 1) {
+            // Another login got there first.
+            Arrays.fill(dataKey, (byte) 0);
+            UserEntity current = userRepository.findById(user.getId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+            return current.getWrappedDataKey() != null
+                ? cryptoService.unwrapDataKey(passwordKey, current.getWrappedDataKey())
+                : passwordKey.clone();
+        }
+        // Sessions opened before now hold the password-derived key and must not write under the new version.
+        revokedUserRegistry.revokeTokensIssuedBefore(user.getId(), Instant.now());
+        vaultKeyRotation.start(user.getId(), keyVersion, passwordKey, dataKey);
+        return dataKey;
+    }
+
+    // Returns the password-derived key, or null when the password does not match.
+    private byte[] verifyPassword(UserEntity user, byte[] kdfSalt, String password) {
+        return user.getKdfVersion() < UserEntity.KDF_VERSION_SINGLE_PASS
+            ? verifyLegacy(user, kdfSalt, password)
+            : verifySinglePass(user, kdfSalt, password);
+    }
+
+    private byte[] verifySinglePass(UserEntity user, byte[] kdfSalt, String password) {
+        CryptoService.DerivedKeys keys = cryptoService.deriveKeys(password.toCharArray(), kdfSalt);
+        byte[] expected = Base64.getDecoder().decode(user.getPasswordHash());
+        boolean verified = MessageDigest.isEqual(expected, keys.authVerifier());
+        Arrays.fill(keys.authVerifier(), (byte) 0);
+        if (!verified) {
+            Arrays.fill(keys.vaultKey(), (byte) 0);
+            return null;
+        }
+        return keys.vaultKey();
+    }
+
+    private byte[] verifyLegacy(UserEntity user, byte[] kdfSalt, String password) {
         char[] passwordChars = password.toCharArray();
+        char[] passwordCopy = passwordChars.clone();
         try {
-            return argon2.hash(4, CryptoService.KDF_MEMORY_KB, CryptoService.KDF_PARALLELISM, passwordChars);
+            boolean verified;
+            Argon2 argon2 = Argon2Factory.create(Argon2Types.ARGON2id);
+            try {
+                verified = legacyVerifyTimer.record(() -> argon2.verify(user.getPasswordHash(), passwordChars));
+            } finally {
+                argon2.wipeArray(passwordChars);
+            }
+            if (!verified) {
+                return null;
+            }
+            return cryptoService.deriveKey(passwordCopy, kdfSalt);
         } finally {
-            argon2.wipeArray(passwordChars);
+            Arrays.fill(passwordCopy, '\0');
         }
     }
 
     public record LoginResult(String token, String tokenId, AuthResponse profile) { }
+
+    public record PasswordChangeResult(String token, String tokenId, VaultKeyRotationProgress rotation) { }
 }
@@ -42,7 +42,7 @@ public class ApiExceptionHandler {
         } else if (log.isWarnEnabled()) {
             log.warn("API error ({}): {}", ex.getStatusCode(), ex.getReason());
         }
-        return ResponseEntity.status(ex.getStatusCode()).body(body);
+        return ResponseEntity.status(ex.getStatusCode()).headers(ex.getHeaders()).body(body);
     }
 
     @ExceptionHandler(Exception.class)
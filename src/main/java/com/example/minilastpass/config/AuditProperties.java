@@ -0,0 +1,75 @@
+package com.example.minilastpass.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+@Validated
+@ConfigurationProperties(prefix = "application.audit")
+public class AuditProperties {
+
+    // Events held in memory between writer passes; rounded up to a power of two.
+    @Positive
+    private int bufferCapacity = 8192;
+
+    // Rows per JDBC batch insert.
+    @Positive
+    private int batchSize = 500;
+
+    // How long the writer sleeps once it has drained the buffer.
+    @NotNull
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    // What a request does when the buffer is full: "drop" the event at once, or "wait" up to
+    // overflow-wait for the writer to make room and drop it after that.
+    @Pattern(regexp = "drop|wait")
+    private String overflow = "drop";
+
+    @NotNull
+    private Duration overflowWait = Duration.ofMillis(5);
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public String getOverflow() {
+        return overflow;
+    }
+
+    public void setOverflow(String overflow) {
+        this.overflow = overflow;
+    }
+
+    public Duration getOverflowWait() {
+        return overflowWait;
+    }
+
+    public void setOverflowWait(Duration overflowWait) {
+        this.overflowWait = overflowWait;
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.minilastpass.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 
 @Validated
 @ConfigurationProperties(prefix = "application.jwt")
@@ -16,6 +20,15 @@ public class JwtProperties {
     @Positive
     private long expirationMinutes;
 
+    // 0 disables caching of verified tokens.
+    @PositiveOrZero
+    private int verifiedTokenCacheSize;
+
+    // How often a node pulls revocations made on other replicas, and checks that the users it has
+    // recently authenticated still exist; bounds how long either takes to apply here.
+    @NotNull
+    private Duration revocationRefreshInterval = Duration.ofSeconds(10);
+
     public String getSecret() {
         return secret;
     }
@@ -31,4 +44,20 @@ public class JwtProperties {
     public void setExpirationMinutes(long expirationMinutes) {
         this.expirationMinutes = expirationMinutes;
     }
+
+    public int getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+
+    public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+    }
+
+    public Duration getRevocationRefreshInterval() {
+        return revocationRefreshInterval;
+    }
+
+    public void setRevocationRefreshInterval(Duration revocationRefreshInterval) {
+        this.revocationRefreshInterval = revocationRefreshInterval;
+    }
 }
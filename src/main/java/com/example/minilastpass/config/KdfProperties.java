@@ -0,0 +1,71 @@
+package com.example.minilastpass.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+@Validated
+@ConfigurationProperties(prefix = "application.kdf")
+public class KdfProperties {
+
+    // 0 sizes the pool from available cores and the memory budget.
+    @PositiveOrZero
+    private int maxConcurrency;
+
+    @Positive
+    private long memoryBudgetMb = 1024;
+
+    @PositiveOrZero
+    private int queueCapacity = 64;
+
+    @NotNull
+    private Duration queueTimeout = Duration.ofSeconds(5);
+
+    @NotNull
+    private Duration retryAfter = Duration.ofSeconds(2);
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public long getMemoryBudgetMb() {
+        return memoryBudgetMb;
+    }
+
+    public void setMemoryBudgetMb(long memoryBudgetMb) {
+        this.memoryBudgetMb = memoryBudgetMb;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(Duration queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+}
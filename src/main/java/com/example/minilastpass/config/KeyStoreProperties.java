@@ -0,0 +1,86 @@
+package com.example.minilastpass.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+@Validated
+@ConfigurationProperties(prefix = "application.key-store")
+public class KeyStoreProperties {
+
+    // "local" keeps keys on the node that ran the login; "database" also stores them wrapped in
+    // session_keys so any replica can serve the session.
+    @Pattern(regexp = "local|database")
+    private String backend = "local";
+
+    // Base64 AES-256 key wrapping session keys in the shared table (database backend only).
+    private String masterKey;
+
+    // How long a replica trusts its local copy before re-reading the shared row, which bounds how long
+    // a logout on another node takes to apply here.
+    @NotNull
+    private Duration nearCacheTtl = Duration.ofSeconds(30);
+
+    // Session keys held at once; past it the least recently used session loses its key.
+    @Positive
+    private int capacity = 10_000;
+
+    @NotNull
+    private Duration maxLifetime = Duration.ofHours(4);
+
+    @NotNull
+    private Duration sweepInterval = Duration.ofMinutes(1);
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public String getMasterKey() {
+        return masterKey;
+    }
+
+    public void setMasterKey(String masterKey) {
+        this.masterKey = masterKey;
+    }
+
+    public Duration getNearCacheTtl() {
+        return nearCacheTtl;
+    }
+
+    public void setNearCacheTtl(Duration nearCacheTtl) {
+        this.nearCacheTtl = nearCacheTtl;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(Duration maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.minilastpass.config;
+
+import com.example.minilastpass.audit.AuditLog;
+import com.example.minilastpass.crypto.KdfExecutor;
+import com.example.minilastpass.security.DerivedKeyStore;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Gauges and counters here are read from state the components already keep, so exporting them
+// adds no work to the request path; only scrapes pay for it.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterBinder kdfExecutorMetrics(KdfExecutor kdfExecutor) {
+        return registry -> {
+            Gauge.builder("minilastpass.kdf.pool.concurrency", kdfExecutor, KdfExecutor::getConcurrency)
+                .description("Argon2 worker threads").register(registry);
+            Gauge.builder("minilastpass.kdf.pool.active", kdfExecutor, KdfExecutor::getActiveCount)
+                .description("Argon2 workers currently deriving").register(registry);
+            Gauge.builder("minilastpass.kdf.pool.queued", kdfExecutor, KdfExecutor::getQueueDepth)
+                .description("Derivations waiting for a worker").register(registry);
+            FunctionCounter.builder("minilastpass.kdf.pool.completed", kdfExecutor, KdfExecutor::getCompletedCount)
+                .description("Derivations run to completion").register(registry);
+            FunctionCounter.builder("minilastpass.kdf.pool.rejected", kdfExecutor, KdfExecutor::getRejectedCount)
+                .description("Derivations refused because the pool was saturated").register(registry);
+            FunctionCounter.builder("minilastpass.kdf.pool.wait", kdfExecutor,
+                    executor -> executor.getTotalWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds").description("Time derivations spent queued").register(registry);
+            Gauge.builder("minilastpass.kdf.pool.wait.max", kdfExecutor,
+                    executor -> executor.getMaxWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                .baseUnit("seconds").description("Longest queue wait since startup").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder derivedKeyStoreMetrics(DerivedKeyStore derivedKeyStore) {
+        return registry -> {
+            Gauge.builder("minilastpass.keystore.size", derivedKeyStore, DerivedKeyStore::size)
+                .description("Session keys held off-heap").register(registry);
+            Gauge.builder("minilastpass.keystore.capacity", derivedKeyStore, DerivedKeyStore::getCapacity)
+                .description("Off-heap key slots").register(registry);
+            FunctionCounter.builder("minilastpass.keystore.evictions", derivedKeyStore,
+                    DerivedKeyStore::getEvictionCount)
+                .description("Session keys dropped to make room").register(registry);
+            FunctionCounter.builder("minilastpass.keystore.expirations", derivedKeyStore,
+                    DerivedKeyStore::getExpirationCount)
+                .description("Session keys dropped after max-lifetime").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder auditLogMetrics(AuditLog auditLog) {
+        return registry -> {
+            Gauge.builder("minilastpass.audit.queued", auditLog, AuditLog::getQueueDepth)
+                .description("Audit events waiting for the writer").register(registry);
+            Gauge.builder("minilastpass.audit.capacity", auditLog, AuditLog::getCapacity)
+                .description("Audit buffer slots").register(registry);
+            FunctionCounter.builder("minilastpass.audit.written", auditLog, AuditLog::getWrittenCount)
+                .description("Audit events stored").register(registry);
+            FunctionCounter.builder("minilastpass.audit.dropped", auditLog, AuditLog::getDroppedCount)
+                .description("Audit events dropped because the buffer was full").register(registry);
+            FunctionCounter.builder("minilastpass.audit.failed", auditLog, AuditLog::getFailedCount)
+                .description("Audit events lost to a failed batch insert").register(registry);
+        };
+    }
+}
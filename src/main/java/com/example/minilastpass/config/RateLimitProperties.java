@@ -0,0 +1,73 @@
+package com.example.minilastpass.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+@Validated
+@ConfigurationProperties(prefix = "application.rate-limit")
+public class RateLimitProperties {
+
+    // "memory" keeps state per node; "database" shares it through the rate_limit_buckets table.
+    @Pattern(regexp = "memory|database")
+    private String backend = "memory";
+
+    // Hard cap on tracked keys; past it idle keys are dropped, then those closest to going idle.
+    @Positive
+    private int maxKeys = 100_000;
+
+    @NotNull
+    private Duration sweepInterval = Duration.ofSeconds(30);
+
+    // Permits a node reserves from the shared store per round trip (database backend only).
+    @Positive
+    private int leaseSize = 4;
+
+    @NotNull
+    private Duration leaseTtl = Duration.ofSeconds(2);
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public Duration getSweepInterval() {
+        return sweepInterval;
+    }
+
+    public void setSweepInterval(Duration sweepInterval) {
+        this.sweepInterval = sweepInterval;
+    }
+
+    public int getLeaseSize() {
+        return leaseSize;
+    }
+
+    public void setLeaseSize(int leaseSize) {
+        this.leaseSize = leaseSize;
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+
+    public void setLeaseTtl(Duration leaseTtl) {
+        this.leaseTtl = leaseTtl;
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.minilastpass.config;
 
+import static org.springframework.security.web.util.matcher.AntPathRequestMatcher.antMatcher;
+
 import com.example.minilastpass.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,19 +16,24 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
-@EnableConfigurationProperties({JwtProperties.class, CorsProperties.class})
+@EnableConfigurationProperties({JwtProperties.class, CorsProperties.class, KdfProperties.class,
+    VaultProperties.class, RateLimitProperties.class, KeyStoreProperties.class, AuditProperties.class})
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final UserDetailsService userDetailsService;
+    private final int managementPort;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, UserDetailsService userDetailsService,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.userDetailsService = userDetailsService;
+        this.managementPort = managementPort;
     }
 
     @Bean
@@ -35,7 +43,11 @@ public class SecurityConfig {
             .cors(cors -> {})
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/api/auth/**", "/h2-console/**").permitAll()
+                // Path matchers rather than MVC ones: the management port runs its own dispatcher servlet.
+                .requestMatchers(antMatcher("/api/auth/**"), antMatcher("/h2-console/**")).permitAll()
+                .requestMatchers(antMatcher("/actuator/health")).permitAll()
+                // The scrape is only open on the management port, which stays off the public network.
+                .requestMatchers(onManagementPort("/actuator/prometheus")).permitAll()
                 .anyRequest().authenticated())
             .userDetailsService(userDetailsService)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
@@ -43,6 +55,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private RequestMatcher onManagementPort(String path) {
+        RequestMatcher pathMatcher = antMatcher(path);
+        return request -> managementPort > 0 && request.getLocalPort() == managementPort
+            && pathMatcher.matches(request);
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) throws Exception {
         return configuration.getAuthenticationManager();
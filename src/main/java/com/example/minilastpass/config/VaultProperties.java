@@ -0,0 +1,99 @@
+package com.example.minilastpass.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+@Validated
+@ConfigurationProperties(prefix = "application.vault")
+public class VaultProperties {
+
+    // Records committed per transaction during NDJSON import.
+    @Positive
+    private int importBatchSize = 500;
+
+    // Legacy Base64 rows repacked into the sealed column per background batch.
+    @Positive
+    private int storageMigrationBatchSize = 500;
+
+    @NotNull
+    private Duration storageMigrationInterval = Duration.ofMinutes(1);
+
+    // Per-user search indexes kept in memory; the least recently searched vault is dropped past this.
+    @Positive
+    private int searchIndexUsers = 1000;
+
+    // Bulk reveal charges one rate-limit permit per this many items (rounded up), against the same
+    // budget as single reveals.
+    @Positive
+    private int revealItemsPerPermit = 100;
+
+    // Items read, re-encrypted and written back per JDBC batch when a password change rotates the vault key.
+    @Positive
+    private int keyRotationBatchSize = 1000;
+
+    // Re-encryption workers; 0 uses one per core.
+    @PositiveOrZero
+    private int keyRotationParallelism = 0;
+
+    public int getImportBatchSize() {
+        return importBatchSize;
+    }
+
+    public void setImportBatchSize(int importBatchSize) {
+        this.importBatchSize = importBatchSize;
+    }
+
+    public int getStorageMigrationBatchSize() {
+        return storageMigrationBatchSize;
+    }
+
+    public void setStorageMigrationBatchSize(int storageMigrationBatchSize) {
+        this.storageMigrationBatchSize = storageMigrationBatchSize;
+    }
+
+    public Duration getStorageMigrationInterval() {
+        return storageMigrationInterval;
+    }
+
+    public void setStorageMigrationInterval(Duration storageMigrationInterval) {
+        this.storageMigrationInterval = storageMigrationInterval;
+    }
+
+    public int getRevealItemsPerPermit() {
+        return revealItemsPerPermit;
+    }
+
+    public void setRevealItemsPerPermit(int revealItemsPerPermit) {
+        this.revealItemsPerPermit = revealItemsPerPermit;
+    }
+
+    public int getKeyRotationBatchSize() {
+        return keyRotationBatchSize;
+    }
+
+    public void setKeyRotationBatchSize(int keyRotationBatchSize) {
+        this.keyRotationBatchSize = keyRotationBatchSize;
+    }
+
+    public int getKeyRotationParallelism() {
+        return keyRotationParallelism;
+    }
+
+    public void setKeyRotationParallelism(int keyRotationParallelism) {
+        this.keyRotationParallelism = keyRotationParallelism;
+    }
+
+    public int getSearchIndexUsers() {
+        return searchIndexUsers;
+    }
+
+    public void setSearchIndexUsers(int searchIndexUsers) {
+        this.searchIndexUsers = searchIndexUsers;
+    }
+}
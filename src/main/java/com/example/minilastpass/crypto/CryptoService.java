@@ -3,14 +3,22 @@ package com.example.minilastpass.crypto;
 import de.mkammerer.argon2.Argon2Advanced;
 import de.mkammerer.argon2.Argon2Factory;
 import de.mkammerer.argon2.Argon2Factory.Argon2Types;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,47 +31,217 @@ public class CryptoService {
 
     private static final int GCM_TAG_LENGTH = 128;
     private static final int GCM_NONCE_LENGTH = 12;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte[] AUTH_VERIFIER_INFO = "minilastpass/auth-verifier/v2".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA_KEY_AAD = "minilastpass/data-key/v1".getBytes(StandardCharsets.UTF_8);
+
+    // Cipher instances are not thread-safe but are expensive to look up. They are pooled rather than
+    // kept per thread: virtual threads are never reused, so a thread-local would cost a lookup per request.
+    private static final BlockingQueue<Cipher> CIPHERS =
+        new ArrayBlockingQueue<>(Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
 
     private final SecureRandom secureRandom = new SecureRandom();
+    // Resolved once so the per-call cost is a clock read and a record, with no tag lookups.
+    private final Timer deriveTimer;
+    private final Timer sealTimer;
+    private final Timer openTimer;
+
+    // For callers outside the container (tests, benchmarks); meters go to an empty, no-op registry.
+    public CryptoService() {
+        this(new CompositeMeterRegistry());
+    }
+
+    @Autowired
+    public CryptoService(MeterRegistry meterRegistry) {
+        this.deriveTimer = Timer.builder("minilastpass.crypto.kdf").tag("operation", "derive")
+            .description("Argon2id key derivation").register(meterRegistry);
+        this.sealTimer = Timer.builder("minilastpass.crypto.cipher").tag("operation", "seal")
+            .description("AES-GCM encryption").register(meterRegistry);
+        this.openTimer = Timer.builder("minilastpass.crypto.cipher").tag("operation", "open")
+            .description("AES-GCM decryption").register(meterRegistry);
+    }
 
     public byte[] deriveKey(char[] password, byte[] salt) {
+        long start = System.nanoTime();
         Argon2Advanced argon2 = Argon2Factory.createAdvanced(Argon2Types.ARGON2id, salt.length, KEY_LENGTH);
         try {
             return argon2.pbkdf(KDF_ITERATIONS, KDF_MEMORY_KB, KDF_PARALLELISM, password, StandardCharsets.UTF_8, salt, KEY_LENGTH);
         } finally {
             argon2.wipeArray(password);
+            deriveTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public EncryptionResult encrypt(byte[] key, String plaintext) {
+    // One Argon2id run: the raw output stays the vault key so ciphertext written under the legacy
+    // format remains readable, and an HKDF expansion of it becomes the login verifier.
+    public DerivedKeys deriveKeys(char[] password, byte[] salt) {
+        byte[] vaultKey = deriveKey(password, salt);
+        return new DerivedKeys(vaultKey, authVerifier(vaultKey, salt));
+    }
+
+    public byte[] authVerifier(byte[] vaultKey, byte[] salt) {
+        return hkdfSha256(vaultKey, salt, AUTH_VERIFIER_INFO, KEY_LENGTH);
+    }
+
+    // Envelope scheme: vault items are sealed under a random per-user data key, and only the data key
+    // is sealed under the password-derived key, so a password change rewraps 32 bytes.
+    public byte[] newDataKey() {
+        byte[] dataKey = new byte[KEY_LENGTH];
+        secureRandom.nextBytes(dataKey);
+        return dataKey;
+    }
+
+    public byte[] wrapDataKey(byte[] passwordKey, byte[] dataKey) {
+        return seal(passwordKey, dataKey, DATA_KEY_AAD);
+    }
+
+    public byte[] unwrapDataKey(byte[] passwordKey, byte[] wrappedDataKey) {
+        return open(passwordKey, wrappedDataKey, DATA_KEY_AAD);
+    }
+
+    // Sealed layout: nonce (12 bytes) || ciphertext || GCM tag (16 bytes), written in one pass
+    // into a single output array.
+    public byte[] seal(byte[] key, byte[] plaintext) {
+        return seal(key, plaintext, null);
+    }
+
+    // aad is authenticated but not encrypted; open must be given the same bytes.
+    public byte[] seal(byte[] key, byte[] plaintext, byte[] aad) {
+        long start = System.nanoTime();
         try {
+            byte[] sealed = new byte[GCM_NONCE_LENGTH + plaintext.length + GCM_TAG_LENGTH / 8];
             byte[] nonce = new byte[GCM_NONCE_LENGTH];
             secureRandom.nextBytes(nonce);
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            SecretKey secretKey = new SecretKeySpec(key, "AES");
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
-            byte[] cipherBytes = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-            return new EncryptionResult(
-                Base64.getEncoder().encodeToString(cipherBytes),
-                Base64.getEncoder().encodeToString(nonce));
+            System.arraycopy(nonce, 0, sealed, 0, GCM_NONCE_LENGTH);
+            Cipher cipher = borrowCipher();
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"),
+                    new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
+                if (aad != null) {
+                    cipher.updateAAD(aad);
+                }
+                cipher.doFinal(plaintext, 0, plaintext.length, sealed, GCM_NONCE_LENGTH);
+            } finally {
+                CIPHERS.offer(cipher);
+            }
+            return sealed;
         } catch (GeneralSecurityException e) {
             throw new IllegalStateException("Failed to encrypt secret", e);
+        } finally {
+            sealTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
-    public String decrypt(byte[] key, String ciphertextBase64, String nonceBase64) {
+    public byte[] open(byte[] key, byte[] sealed) {
+        return open(key, sealed, null);
+    }
+
+    public byte[] open(byte[] key, byte[] sealed, byte[] aad) {
+        if (sealed.length < GCM_NONCE_LENGTH + GCM_TAG_LENGTH / 8) {
+            throw new IllegalStateException("Failed to decrypt secret: sealed value too short");
+        }
+        long start = System.nanoTime();
         try {
-            byte[] ciphertext = Base64.getDecoder().decode(ciphertextBase64);
-            byte[] nonce = Base64.getDecoder().decode(nonceBase64);
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            SecretKey secretKey = new SecretKeySpec(key, "AES");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, nonce));
-            byte[] plainBytes = cipher.doFinal(ciphertext);
-            return new String(plainBytes, StandardCharsets.UTF_8);
+            Cipher cipher = borrowCipher();
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"),
+                    new GCMParameterSpec(GCM_TAG_LENGTH, sealed, 0, GCM_NONCE_LENGTH));
+                if (aad != null) {
+                    cipher.updateAAD(aad);
+                }
+                return cipher.doFinal(sealed, GCM_NONCE_LENGTH, sealed.length - GCM_NONCE_LENGTH);
+            } finally {
+                CIPHERS.offer(cipher);
+            }
         } catch (GeneralSecurityException e) {
             throw new IllegalStateException("Failed to decrypt secret", e);
+        } finally {
+            openTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public byte[] sealString(byte[] key, String plaintext) {
+        byte[] plainBytes = plaintext.getBytes(StandardCharsets.UTF_8);
+        try {
+            return seal(key, plainBytes);
+        } finally {
+            Arrays.fill(plainBytes, (byte) 0);
+        }
+    }
+
+    public String openString(byte[] key, byte[] sealed) {
+        byte[] plainBytes = open(key, sealed);
+        try {
+            return new String(plainBytes, StandardCharsets.UTF_8);
+        } finally {
+            Arrays.fill(plainBytes, (byte) 0);
+        }
+    }
+
+    // Converts the legacy Base64 column pair into the sealed layout; no key is needed.
+    public static byte[] toSealed(String ciphertextBase64, String nonceBase64) {
+        byte[] nonce = Base64.getDecoder().decode(nonceBase64);
+        byte[] ciphertext = Base64.getDecoder().decode(ciphertextBase64);
+        if (nonce.length != GCM_NONCE_LENGTH) {
+            throw new IllegalArgumentException("Unexpected nonce length " + nonce.length);
+        }
+        byte[] sealed = new byte[nonce.length + ciphertext.length];
+        System.arraycopy(nonce, 0, sealed, 0, nonce.length);
+        System.arraycopy(ciphertext, 0, sealed, nonce.length, ciphertext.length);
+        return sealed;
+    }
+
+    public EncryptionResult encrypt(byte[] key, String plaintext) {
+        byte[] sealed = sealString(key, plaintext);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return new EncryptionResult(
+            encoder.encodeToString(Arrays.copyOfRange(sealed, GCM_NONCE_LENGTH, sealed.length)),
+            encoder.encodeToString(Arrays.copyOfRange(sealed, 0, GCM_NONCE_LENGTH)));
+    }
+
+    public String decrypt(byte[] key, String ciphertextBase64, String nonceBase64) {
+        byte[] sealed;
+        try {
+            sealed = toSealed(ciphertextBase64, nonceBase64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Failed to decrypt secret", e);
+        }
+        return openString(key, sealed);
+    }
+
+    // A full pool drops the returned cipher, so bursts beyond its size only cost a lookup.
+    private static Cipher borrowCipher() throws GeneralSecurityException {
+        Cipher cipher = CIPHERS.poll();
+        return cipher != null ? cipher : Cipher.getInstance("AES/GCM/NoPadding");
+    }
+
+    private byte[] hkdfSha256(byte[] inputKey, byte[] salt, byte[] info, int length) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(salt, HMAC_ALGORITHM));
+            byte[] pseudoRandomKey = mac.doFinal(inputKey);
+            mac.init(new SecretKeySpec(pseudoRandomKey, HMAC_ALGORITHM));
+            Arrays.fill(pseudoRandomKey, (byte) 0);
+            byte[] output = new byte[length];
+            byte[] block = new byte[0];
+            int offset = 0;
+            for (int counter = 1; offset < length; counter++) {
+                mac.update(block);
+                mac.update(info);
+                mac.update((byte) counter);
+                block = mac.doFinal();
+                int chunk = Math.min(block.length, length - offset);
+                System.arraycopy(block, 0, output, offset, chunk);
+                offset += chunk;
+            }
+            Arrays.fill(block, (byte) 0);
+            return output;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to expand key", e);
         }
     }
 
+    public record DerivedKeys(byte[] vaultKey, byte[] authVerifier) {}
+
     public record EncryptionResult(String ciphertextBase64, String nonceBase64) {}
 }
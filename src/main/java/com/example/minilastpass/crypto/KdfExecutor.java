@@ -0,0 +1,147 @@
+package com.example.minilastpass.crypto;
+
+import com.example.minilastpass.config.KdfProperties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+@Component
+public class KdfExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KdfExecutor.class);
+    private static final long KDF_MEMORY_MB = CryptoService.KDF_MEMORY_KB / 1024;
+
+    private final KdfProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final int concurrency;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public KdfExecutor(KdfProperties properties) {
+        this.properties = properties;
+        this.concurrency = resolveConcurrency(properties);
+        BlockingQueue<Runnable> queue = properties.getQueueCapacity() == 0
+            ? new SynchronousQueue<>()
+            : new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS, queue,
+            new KdfThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        log.info("KDF pool started with {} workers, queue capacity {}", concurrency, properties.getQueueCapacity());
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                recordWait(waited);
+                if (waited > properties.getQueueTimeout().toNanos()) {
+                    rejected.increment();
+                    throw new KdfSaturatedException(properties.getRetryAfter());
+                }
+                try {
+                    return task.get();
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new KdfSaturatedException(properties.getRetryAfter());
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new KdfSaturatedException(properties.getRetryAfter());
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("KDF task failed", cause);
+        }
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private void recordWait(long waitedNanos) {
+        totalWaitNanos.add(waitedNanos);
+        maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+
+    private static int resolveConcurrency(KdfProperties properties) {
+        if (properties.getMaxConcurrency() > 0) {
+            return properties.getMaxConcurrency();
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        long byMemory = Math.max(1, properties.getMemoryBudgetMb() / KDF_MEMORY_MB);
+        return (int) Math.max(1, Math.min(cores, byMemory));
+    }
+
+    // Platform threads on purpose: Argon2 holds a carrier for the whole JNI call, so with virtual
+    // request threads this pool is still what bounds CPU and native memory use.
+    private static final class KdfThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "kdf-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
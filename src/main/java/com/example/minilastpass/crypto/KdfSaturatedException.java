@@ -0,0 +1,23 @@
+package com.example.minilastpass.crypto;
+
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class KdfSaturatedException extends ResponseStatusException {
+
+    private final Duration retryAfter;
+
+    public KdfSaturatedException(Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Authentication is busy, please retry shortly");
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+        return headers;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.minilastpass.rate;
+
+import com.example.minilastpass.config.RateLimitProperties;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+// GCRA over a shared table so limits hold across replicas. To keep the common case off the database,
+// a node reserves a lease of several permits in one update and serves them locally until the lease
+// expires; unused leased time is refunded so other nodes are not starved for longer than the lease TTL.
+@Component
+@ConditionalOnProperty(name = "application.rate-limit.backend", havingValue = "database")
+public class DatabaseRateLimiterBackend implements RateLimiterBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseRateLimiterBackend.class);
+    private static final int MAX_CAS_ATTEMPTS = 8;
+
+    private final RateLimitBucketRepository repository;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final int leaseSize;
+    private final long leaseTtlMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public DatabaseRateLimiterBackend(RateLimitBucketRepository repository, RateLimitProperties properties) {
+        this(repository, properties.getMaxKeys(), properties.getLeaseSize(), properties.getLeaseTtl(),
+            System::currentTimeMillis);
+    }
+
+    DatabaseRateLimiterBackend(RateLimitBucketRepository repository, int maxKeys, int leaseSize,
+                               Duration leaseTtl, LongSupplier clock) {
+        this.repository = repository;
+        this.maxKeys = maxKeys;
+        this.leaseSize = leaseSize;
+        this.leaseTtlMillis = leaseTtl.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean tryConsume(String key, Duration window, int maxAttempts, int permits) {
+        long now = clock.getAsLong();
+        Lease lease = leases.get(key);
+        if (lease != null) {
+            if (lease.expiresAt > now) {
+                if (lease.take(permits)) {
+                    return true;
+                }
+            } else if (leases.remove(key, lease)) {
+                release(key, lease, now);
+            }
+        }
+        long limit = window.toMillis();
+        long interval = Math.max(1, limit / maxAttempts);
+        int grant = Math.min(Math.max(leaseSize, permits), maxAttempts);
+        if (grant > permits && leases.size() < maxKeys && reserve(key, interval * grant, limit, now)) {
+            Lease previous = leases.put(key, new Lease(grant - permits, interval, now + leaseTtlMillis));
+            if (previous != null) {
+                release(key, previous, now);
+            }
+            return true;
+        }
+        return reserve(key, interval * permits, limit, now);
+    }
+
+    @Override
+    public void sweep() {
+        long now = clock.getAsLong();
+        leases.forEach((key, lease) -> {
+            if (lease.expiresAt <= now && leases.remove(key, lease)) {
+                release(key, lease, now);
+            }
+        });
+        repository.deleteIdle(now);
+    }
+
+    // Locally held leases; shared state lives in rate_limit_buckets.
+    @Override
+    public int size() {
+        return leases.size();
+    }
+
+    // Same GCRA as the in-memory backend: each permit costs window / maxAttempts and the TAT may run at
+    // most one window ahead.
+    private boolean reserve(String key, long cost, long limit, long now) {
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            Optional<Long> tat = repository.findTatMillis(key);
+            if (tat.isEmpty()) {
+                if (cost > limit) {
+                    return false;
+                }
+                try {
+                    repository.insert(key, now + cost);
+                    return true;
+                } catch (DataIntegrityViolationException ex) {
+                    continue;
+                }
+            }
+            long next = Math.max(tat.get(), now) + cost;
+            if (next - now > limit) {
+                return false;
+            }
+            if (repository.compareAndSet(key, tat.get(), next) == 1) {
+                return true;
+            }
+        }
+        log.warn("Rate limit bucket {} stayed contended after {} attempts; denying", key, MAX_CAS_ATTEMPTS);
+        return false;
+    }
+
+    private void release(String key, Lease lease, long now) {
+        int unused = lease.remaining.getAndSet(0);
+        if (unused > 0) {
+            repository.refund(key, unused * lease.intervalMillis, now);
+        }
+    }
+
+    private static final class Lease {
+
+        private final AtomicInteger remaining;
+        private final long intervalMillis;
+        private final long expiresAt;
+
+        Lease(int remaining, long intervalMillis, long expiresAt) {
+            this.remaining = new AtomicInteger(remaining);
+            this.intervalMillis = intervalMillis;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean take(int permits) {
+            while (true) {
+                int current = remaining.get();
+                if (current < permits) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - permits)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
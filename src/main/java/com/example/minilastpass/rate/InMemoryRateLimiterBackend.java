@@ -0,0 +1,124 @@
+package com.example.minilastpass.rate;
+
+import com.example.minilastpass.config.RateLimitProperties;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// GCRA limiter: each key holds one long, its theoretical arrival time (TAT) in nanos. A request
+// advances the TAT by window / maxAttempts per permit and is allowed while the TAT stays within one
+// window of now, which admits a burst of maxAttempts and then one attempt per interval. The burst is
+// the tolerance: a window that opens with a full burst can see up to 2 * maxAttempts - 1 attempts, and
+// the sustained rate is maxAttempts per window.
+@Component
+@ConditionalOnProperty(name = "application.rate-limit.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiterBackend implements RateLimiterBackend {
+
+    // Marks a state removed by the sweeper so a racing consumer re-resolves its key instead of
+    // updating an orphaned counter.
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final int evictionBatch;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public InMemoryRateLimiterBackend(RateLimitProperties properties) {
+        this(properties.getMaxKeys(), System::nanoTime);
+    }
+
+    InMemoryRateLimiterBackend(int maxKeys, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.evictionBatch = Math.max(1, maxKeys / 100);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public boolean tryConsume(String key, Duration window, int maxAttempts, int permits) {
+        long limit = window.toNanos();
+        long cost = limit / maxAttempts * permits;
+        long now = nanoClock.getAsLong();
+        AtomicLong state = bucket(key, now);
+        while (true) {
+            long tat = state.get();
+            if (tat == RETIRED) {
+                state = bucket(key, now);
+                continue;
+            }
+            long next = (tat - now > 0 ? tat : now) + cost;
+            if (next - now > limit) {
+                return false;
+            }
+            if (state.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    // A key whose TAT has passed is indistinguishable from an unseen key, so dropping it is lossless.
+    @Override
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        buckets.forEach((key, state) -> {
+            long tat = state.get();
+            if (tat != RETIRED && tat - now <= 0 && state.compareAndSet(tat, RETIRED)) {
+                buckets.remove(key, state);
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong state = buckets.get(key);
+        if (state != null) {
+            return state;
+        }
+        if (buckets.size() >= maxKeys) {
+            makeRoom(now);
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    // Drops idle keys first; if none are, drops the evictionBatch keys closest to going idle, which are
+    // the least throttled, so a flood of fresh keys cannot push out a key that is still being held back.
+    // One pass makes room for a batch of inserts, keeping the cost per new key amortized.
+    private synchronized void makeRoom(long now) {
+        if (buckets.size() < maxKeys) {
+            return;
+        }
+        sweep();
+        if (buckets.size() < maxKeys) {
+            return;
+        }
+        long[] ahead = new long[buckets.size()];
+        int count = 0;
+        for (AtomicLong state : buckets.values()) {
+            long tat = state.get();
+            if (tat != RETIRED && count < ahead.length) {
+                ahead[count++] = tat - now;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        Arrays.sort(ahead, 0, count);
+        long threshold = ahead[Math.min(evictionBatch, count) - 1];
+        buckets.forEach((key, state) -> {
+            long tat = state.get();
+            if (tat != RETIRED && tat - now <= threshold && state.compareAndSet(tat, RETIRED)) {
+                buckets.remove(key, state);
+            }
+        });
+    }
+}
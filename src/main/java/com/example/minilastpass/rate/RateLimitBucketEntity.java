@@ -0,0 +1,35 @@
+package com.example.minilastpass.rate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Shared GCRA state for DatabaseRateLimiterBackend: the theoretical arrival time in epoch millis.
+@Entity
+@Table(name = "rate_limit_buckets")
+public class RateLimitBucketEntity {
+
+    @Id
+    @Column(name = "bucket_key", length = 320)
+    private String key;
+
+    @Column(nullable = false)
+    private long tatMillis;
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getTatMillis() {
+        return tatMillis;
+    }
+
+    public void setTatMillis(long tatMillis) {
+        this.tatMillis = tatMillis;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.minilastpass.rate;
+
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Every write commits on its own: a consumed permit must not roll back with the caller's transaction.
+// Callers charge the limiter before opening a transaction of their own, so this never suspends one and
+// a request holds at most one pooled connection at a time.
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucketEntity, String> {
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("select b.tatMillis from RateLimitBucketEntity b where b.key = :key")
+    Optional<Long> findTatMillis(@Param("key") String key);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "insert into rate_limit_buckets (bucket_key, tat_millis) values (:key, :tat)", nativeQuery = true)
+    int insert(@Param("key") String key, @Param("tat") long tatMillis);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update RateLimitBucketEntity b set b.tatMillis = :next where b.key = :key and b.tatMillis = :expected")
+    int compareAndSet(@Param("key") String key, @Param("expected") long expected, @Param("next") long next);
+
+    // Returns unused leased time; never moves the TAT below now, which would mint extra burst.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update RateLimitBucketEntity b set b.tatMillis = case when b.tatMillis - :refund > :now "
+        + "then b.tatMillis - :refund else :now end where b.key = :key and b.tatMillis > :now")
+    int refund(@Param("key") String key, @Param("refund") long refundMillis, @Param("now") long now);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("delete from RateLimitBucketEntity b where b.tatMillis <= :now")
+    int deleteIdle(@Param("now") long now);
+}
@@ -0,0 +1,15 @@
+package com.example.minilastpass.rate;
+
+import java.time.Duration;
+
+// Storage for rate-limit state. Implementations admit at most maxAttempts permits per window per key
+// with burst semantics matching GCRA; selected by application.rate-limit.backend.
+public interface RateLimiterBackend {
+
+    boolean tryConsume(String key, Duration window, int maxAttempts, int permits);
+
+    // Drops idle state; called periodically by RateLimiterService.
+    void sweep();
+
+    int size();
+}
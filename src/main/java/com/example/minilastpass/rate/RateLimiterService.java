@@ -1,30 +1,54 @@
 package com.example.minilastpass.rate;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 public class RateLimiterService {
 
-    private final Map<String, Deque<Instant>> buckets = new ConcurrentHashMap<>();
+    private final RateLimiterBackend backend;
+    private final MeterRegistry meterRegistry;
+    // Keyed by scope ("login", "reveal"), never by the full key, so the tag set stays small.
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
 
+    public RateLimiterService(RateLimiterBackend backend, MeterRegistry meterRegistry) {
+        this.backend = backend;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("minilastpass.ratelimit.keys", backend, RateLimiterBackend::size)
+            .description("Rate-limit keys held by this node")
+            .register(meterRegistry);
+    }
+
+    // Call outside any transaction: the database backend commits each charge on a connection of its own.
     public boolean tryConsume(String key, Duration window, int maxAttempts) {
-        Deque<Instant> deque = buckets.computeIfAbsent(key, k -> new ArrayDeque<>());
-        synchronized (deque) {
-            Instant cutoff = Instant.now().minus(window);
-            while (!deque.isEmpty() && deque.peekFirst().isBefore(cutoff)) {
-                deque.removeFirst();
-            }
-            if (deque.size() >= maxAttempts) {
-                return false;
-            }
-            deque.addLast(Instant.now());
+        return tryConsume(key, window, maxAttempts, 1);
+    }
+
+    // Takes several permits at once, e.g. for requests that cost more than a single attempt.
+    public boolean tryConsume(String key, Duration window, int maxAttempts, int permits) {
+        if (permits <= maxAttempts && backend.tryConsume(key, window, maxAttempts, permits)) {
             return true;
         }
+        rejections.computeIfAbsent(scopeOf(key), scope -> Counter.builder("minilastpass.ratelimit.rejected")
+            .tag("scope", scope)
+            .description("Requests refused by the rate limiter")
+            .register(meterRegistry)).increment();
+        return false;
+    }
+
+    private static String scopeOf(String key) {
+        int separator = key.indexOf(':');
+        return separator < 0 ? "other" : key.substring(0, separator);
+    }
+
+    @Scheduled(fixedDelayString = "${application.rate-limit.sweep-interval:PT30S}")
+    public void sweep() {
+        backend.sweep();
     }
 }
@@ -1,46 +1,218 @@
 package com.example.minilastpass.security;
 
+import com.example.minilastpass.config.KeyStoreProperties;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+// Session vault keys live in fixed-size slots of one direct buffer, outside the GC heap, so they are
+// never copied by the collector and are zeroed as soon as a session ends, expires or is evicted.
+// With the database backend this store is a near-cache in front of ReplicatedKeyStore.
 @Component
 public class DerivedKeyStore {
 
-    private static final Duration MAX_LIFETIME = Duration.ofHours(4);
+    static final int SLOT_BYTES = 64;
+
+    private final int capacity;
+    private final Duration maxLifetime;
+    private final long localLifetimeNanos;
+    private final ReplicatedKeyStore replica;
+    private final LongSupplier nanoClock;
+    private final ByteBuffer slab;
+    private final Deque<Integer> freeSlots;
+    // Access-ordered, so iteration starts at the least recently used session.
+    private final LinkedHashMap<String, Slot> slots;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
 
-    private final Map<String, Entry> keys = new ConcurrentHashMap<>();
+    @Autowired
+    public DerivedKeyStore(KeyStoreProperties properties, ObjectProvider<ReplicatedKeyStore> replica) {
+        this(properties.getCapacity(), properties.getMaxLifetime(), properties.getNearCacheTtl(),
+            replica.getIfAvailable(), System::nanoTime);
+    }
+
+    DerivedKeyStore(int capacity, Duration maxLifetime, LongSupplier nanoClock) {
+        this(capacity, maxLifetime, maxLifetime, null, nanoClock);
+    }
+
+    DerivedKeyStore(int capacity, Duration maxLifetime, Duration nearCacheTtl, ReplicatedKeyStore replica,
+                    LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.maxLifetime = maxLifetime;
+        this.replica = replica;
+        this.localLifetimeNanos = replica == null ? maxLifetime.toNanos()
+            : Math.min(maxLifetime.toNanos(), nearCacheTtl.toNanos());
+        this.nanoClock = nanoClock;
+        this.slab = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        this.freeSlots = new ArrayDeque<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            freeSlots.push(i);
+        }
+        this.slots = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true);
+    }
 
     public void put(String tokenId, byte[] key) {
         Objects.requireNonNull(tokenId, "tokenId");
         Objects.requireNonNull(key, "key");
-        keys.put(tokenId, new Entry(key.clone(), Instant.now()));
+        if (key.length > SLOT_BYTES) {
+            throw new IllegalArgumentException("Key exceeds slot size");
+        }
+        if (replica != null) {
+            replica.put(tokenId, key, maxLifetime);
+        }
+        putLocal(tokenId, key, nanoClock.getAsLong() + localLifetimeNanos);
     }
 
     public byte[] get(String tokenId) {
         if (tokenId == null) {
             return null;
         }
-        Entry entry = keys.get(tokenId);
-        if (entry == null) {
-            return null;
+        byte[] key = getLocal(tokenId);
+        if (key != null || replica == null) {
+            return key;
         }
-        if (Instant.now().isAfter(entry.createdAt().plus(MAX_LIFETIME))) {
-            keys.remove(tokenId);
+        ReplicatedKeyStore.SharedKey shared = replica.get(tokenId);
+        if (shared == null) {
             return null;
         }
-        return entry.key().clone();
+        long remaining = Duration.between(Instant.now(), shared.expiresAt()).toNanos();
+        putLocal(tokenId, shared.key(), nanoClock.getAsLong() + Math.min(remaining, localLifetimeNanos));
+        return shared.key();
     }
 
     public void remove(String tokenId) {
-        if (tokenId != null) {
-            keys.remove(tokenId);
+        if (tokenId == null) {
+            return;
+        }
+        removeLocal(tokenId);
+        if (replica != null) {
+            replica.remove(tokenId);
+        }
+    }
+
+    private void putLocal(String tokenId, byte[] key, long expiresAtNanos) {
+        lock.lock();
+        try {
+            release(slots.remove(tokenId));
+            if (freeSlots.isEmpty()) {
+                Iterator<Slot> eldest = slots.values().iterator();
+                release(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+            Slot slot = new Slot(freeSlots.pop(), key.length, expiresAtNanos);
+            slab.put(slot.offset(), key);
+            slots.put(tokenId, slot);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private byte[] getLocal(String tokenId) {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Slot slot = slots.get(tokenId);
+            if (slot == null) {
+                return null;
+            }
+            if (slot.isExpired(now)) {
+                slots.remove(tokenId);
+                release(slot);
+                expirations.increment();
+                return null;
+            }
+            byte[] key = new byte[slot.length()];
+            slab.get(slot.offset(), key);
+            return key;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocal(String tokenId) {
+        lock.lock();
+        try {
+            release(slots.remove(tokenId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Keys from sessions that never log out would otherwise sit in their slots until evicted.
+    @Scheduled(fixedDelayString = "${application.key-store.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Iterator<Slot> iterator = slots.values().iterator();
+            while (iterator.hasNext()) {
+                Slot slot = iterator.next();
+                if (slot.isExpired(now)) {
+                    release(slot);
+                    iterator.remove();
+                    expirations.increment();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    private void release(Slot slot) {
+        if (slot == null) {
+            return;
+        }
+        for (int i = 0; i < SLOT_BYTES; i++) {
+            slab.put(slot.offset() + i, (byte) 0);
         }
+        freeSlots.push(slot.index());
     }
 
-    private record Entry(byte[] key, Instant createdAt) { }
+    private record Slot(int index, int length, long expiresAtNanos) {
+
+        int offset() {
+            return index * SLOT_BYTES;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos > 0;
+        }
+    }
 }
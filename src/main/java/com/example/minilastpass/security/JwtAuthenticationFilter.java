@@ -1,5 +1,7 @@
 package com.example.minilastpass.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,6 +12,7 @@ import java.time.Duration;
 import java.util.Arrays;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -31,12 +34,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final VaultUserDetailsService userDetailsService;
     private final DerivedKeyStore derivedKeyStore;
+    private final Timer validParseTimer;
+    private final Timer invalidParseTimer;
 
     public JwtAuthenticationFilter(JwtService jwtService, VaultUserDetailsService userDetailsService,
-                                   DerivedKeyStore derivedKeyStore) {
+                                   DerivedKeyStore derivedKeyStore, MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
         this.derivedKeyStore = derivedKeyStore;
+        this.validParseTimer = Timer.builder("minilastpass.jwt.parse").tag("outcome", "valid")
+            .description("JWT verification per request, verified-token cache included").register(meterRegistry);
+        this.invalidParseTimer = Timer.builder("minilastpass.jwt.parse").tag("outcome", "invalid")
+            .description("JWT verification per request, verified-token cache included").register(meterRegistry);
     }
 
     @Override
@@ -59,19 +68,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private void authenticate(HttpServletRequest request, HttpServletResponse response, String token) {
-        String tokenId = null;
+        VerifiedToken verified;
+        long start = System.nanoTime();
+        try {
+            verified = jwtService.parse(token);
+            validParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException ex) {
+            invalidParseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("Rejected invalid JWT", ex);
+            clearAuthCookie(response);
+            return;
+        }
+        String tokenId = verified.tokenId();
         try {
-            if (!jwtService.isTokenValid(token)) {
-                clearAuthCookie(response);
-                return;
-            }
-            tokenId = jwtService.extractTokenId(token);
             if (tokenId == null || tokenId.isBlank()) {
                 log.debug("JWT token missing identifier");
                 clearAuthCookie(response);
                 return;
             }
-            UUID userId = jwtService.extractUserId(token);
+            UUID userId = verified.userId();
             byte[] vaultKey = derivedKeyStore.get(tokenId);
             if (vaultKey == null) {
                 log.debug("Derived key missing for token {}", tokenId);
@@ -80,13 +95,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
             try {
-                SecurityUser userDetails = userDetailsService.loadUserById(userId, vaultKey);
+                SecurityUser userDetails = userDetailsService.loadUserFromToken(verified, vaultKey);
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } catch (UsernameNotFoundException ex) {
-                log.debug("User {} not found for token {}", userId, tokenId);
+                log.debug("User {} rejected for token {}", userId, tokenId);
                 derivedKeyStore.remove(tokenId);
                 clearAuthCookie(response);
             }
@@ -2,6 +2,7 @@ package com.example.minilastpass.security;
 
 import com.example.minilastpass.config.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,10 +20,16 @@ public class JwtService {
 
     private final JwtProperties properties;
     private final Key signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
 
     public JwtService(JwtProperties properties) {
         this.properties = properties;
         this.signingKey = Keys.hmacShaKeyFor(properties.getSecret().getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
+        this.verifiedTokens = new VerifiedTokenCache(properties.getVerifiedTokenCacheSize());
     }
 
     public String generateToken(UUID userId, String email, String tokenId) {
@@ -38,35 +45,46 @@ public class JwtService {
             .compact();
     }
 
+    // Verifies the signature and expiry once and returns the claims the application relies on.
+    // Throws io.jsonwebtoken.JwtException (or IllegalArgumentException) for invalid tokens.
+    public VerifiedToken parse(String token) {
+        Instant now = Instant.now();
+        VerifiedToken cached = verifiedTokens.get(token, now);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        VerifiedToken verified = new VerifiedToken(
+            UUID.fromString(claims.getSubject()),
+            claims.get("email", String.class),
+            claims.getId(),
+            claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+            claims.getExpiration().toInstant());
+        if (verified.isExpired(now)) {
+            throw new IllegalArgumentException("Token expired");
+        }
+        verifiedTokens.put(token, verified);
+        return verified;
+    }
+
     public boolean isTokenValid(String token) {
         try {
-            Claims claims = parseClaims(token);
-            return claims.getExpiration().after(new Date());
+            parse(token);
+            return true;
         } catch (Exception ex) {
             return false;
         }
     }
 
     public UUID extractUserId(String token) {
-        Claims claims = parseClaims(token);
-        return UUID.fromString(claims.getSubject());
+        return parse(token).userId();
     }
 
     public String extractEmail(String token) {
-        Claims claims = parseClaims(token);
-        return claims.get("email", String.class);
+        return parse(token).email();
     }
 
     public String extractTokenId(String token) {
-        Claims claims = parseClaims(token);
-        return claims.getId();
-    }
-
-    private Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(signingKey)
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        return parse(token).tokenId();
     }
 }
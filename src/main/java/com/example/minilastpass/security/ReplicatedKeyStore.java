@@ -0,0 +1,78 @@
+package com.example.minilastpass.security;
+
+import com.example.minilastpass.config.KeyStoreProperties;
+import com.example.minilastpass.crypto.CryptoService;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Shared copy of session keys so any replica can serve a token minted elsewhere without rerunning
+// Argon2. Keys are AES-GCM wrapped under application.key-store.master-key with the token id as AAD,
+// so a row cannot be replayed under another token. DerivedKeyStore remains the per-node near-cache.
+@Component
+@ConditionalOnProperty(name = "application.key-store.backend", havingValue = "database")
+public class ReplicatedKeyStore {
+
+    private final SessionKeyRepository repository;
+    private final CryptoService cryptoService;
+    private final byte[] masterKey;
+
+    public ReplicatedKeyStore(SessionKeyRepository repository, CryptoService cryptoService,
+                              KeyStoreProperties properties) {
+        this(repository, cryptoService, decodeMasterKey(properties.getMasterKey()));
+    }
+
+    ReplicatedKeyStore(SessionKeyRepository repository, CryptoService cryptoService, byte[] masterKey) {
+        this.repository = repository;
+        this.cryptoService = cryptoService;
+        this.masterKey = masterKey;
+    }
+
+    void put(String tokenId, byte[] key, Duration lifetime) {
+        SessionKeyEntity entity = new SessionKeyEntity();
+        entity.setTokenId(tokenId);
+        entity.setWrappedKey(cryptoService.seal(masterKey, key, aad(tokenId)));
+        entity.setExpiresAt(Instant.now().plus(lifetime));
+        repository.save(entity);
+    }
+
+    SharedKey get(String tokenId) {
+        return repository.findByTokenIdAndExpiresAtAfter(tokenId, Instant.now())
+            .map(entity -> new SharedKey(cryptoService.open(masterKey, entity.getWrappedKey(), aad(tokenId)),
+                entity.getExpiresAt()))
+            .orElse(null);
+    }
+
+    void remove(String tokenId) {
+        repository.deleteByTokenId(tokenId);
+    }
+
+    @Scheduled(fixedDelayString = "${application.key-store.sweep-interval:PT1M}")
+    public void sweep() {
+        repository.deleteExpired(Instant.now());
+    }
+
+    private static byte[] aad(String tokenId) {
+        return tokenId.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] decodeMasterKey(String masterKeyBase64) {
+        if (masterKeyBase64 == null || masterKeyBase64.isBlank()) {
+            throw new IllegalStateException("application.key-store.master-key is required for the database backend");
+        }
+        byte[] key = Base64.getDecoder().decode(masterKeyBase64);
+        if (key.length != CryptoService.KEY_LENGTH) {
+            Arrays.fill(key, (byte) 0);
+            throw new IllegalStateException("application.key-store.master-key must be "
+                + CryptoService.KEY_LENGTH + " bytes");
+        }
+        return key;
+    }
+
+    record SharedKey(byte[] key, Instant expiresAt) { }
+}
@@ -0,0 +1,91 @@
+package com.example.minilastpass.security;
+
+import com.example.minilastpass.config.JwtProperties;
+import com.example.minilastpass.user.SessionCutoff;
+import com.example.minilastpass.user.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Tokens are validated from their claims alone, so account deletion, disablement or a credential
+// change is enforced by recording the instant before which a user's tokens are no longer accepted.
+// Checks only read the local map. Cutoffs are also written to the user row, and every node pulls the
+// recent ones on a schedule, together with which of its recently seen users no longer exist.
+// JWT iat has second precision: tokens issued within the cutoff second itself stay valid.
+@Component
+public class RevokedUserRegistry {
+
+    private static final int EXISTENCE_CHECK_BATCH = 500;
+
+    private final Map<UUID, Instant> revokedBefore = new ConcurrentHashMap<>();
+    // Users whose tokens this node accepted, with when it last did.
+    private final Map<UUID, Instant> activeUsers = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final Duration tokenLifetime;
+
+    public RevokedUserRegistry(UserRepository userRepository, JwtProperties jwtProperties) {
+        this.userRepository = userRepository;
+        this.tokenLifetime = Duration.ofMinutes(jwtProperties.getExpirationMinutes());
+    }
+
+    public void revokeTokensIssuedBefore(UUID userId, Instant instant) {
+        Objects.requireNonNull(userId, "userId");
+        Objects.requireNonNull(instant, "instant");
+        Instant cutoff = instant.truncatedTo(ChronoUnit.SECONDS);
+        record(userId, cutoff);
+        userRepository.revokeSessionsBefore(userId, cutoff);
+    }
+
+    public boolean isRevoked(UUID userId, Instant issuedAt) {
+        Instant now = Instant.now();
+        Instant cutoff = revokedBefore.get(userId);
+        if (cutoff != null) {
+            if (now.isAfter(cutoff.plus(tokenLifetime))) {
+                // Every token issued before the cutoff has expired by now.
+                revokedBefore.remove(userId, cutoff);
+            } else if (issuedAt == null || issuedAt.isBefore(cutoff)) {
+                return true;
+            }
+        }
+        activeUsers.put(userId, now);
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${application.jwt.revocation-refresh-interval:PT10S}")
+    public void refresh() {
+        Instant now = Instant.now();
+        Instant horizon = now.minus(tokenLifetime);
+        for (SessionCutoff cutoff : userRepository.findSessionCutoffsSince(horizon)) {
+            record(cutoff.getId(), cutoff.getSessionsRevokedBefore());
+        }
+        revokedBefore.values().removeIf(cutoff -> cutoff.isBefore(horizon));
+        activeUsers.values().removeIf(seen -> seen.isBefore(horizon));
+        List<UUID> seen = new ArrayList<>(activeUsers.keySet());
+        for (int from = 0; from < seen.size(); from += EXISTENCE_CHECK_BATCH) {
+            List<UUID> batch = seen.subList(from, Math.min(from + EXISTENCE_CHECK_BATCH, seen.size()));
+            Set<UUID> existing = new HashSet<>(userRepository.findExistingIds(batch));
+            for (UUID userId : batch) {
+                if (!existing.contains(userId)) {
+                    // A deleted account cannot sign in again, so refusing everything issued so far is final.
+                    record(userId, now.plusSeconds(1).truncatedTo(ChronoUnit.SECONDS));
+                    activeUsers.remove(userId);
+                }
+            }
+        }
+    }
+
+    private void record(UUID userId, Instant cutoff) {
+        revokedBefore.merge(userId, cutoff,
+            (existing, candidate) -> existing.isAfter(candidate) ? existing : candidate);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.minilastpass.security;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+// A session's vault key wrapped under the cluster master key, bound to its token id as AAD.
+@Entity
+@Table(name = "session_keys", indexes = @Index(name = "idx_session_keys_expires_at", columnList = "expires_at"))
+public class SessionKeyEntity {
+
+    @Id
+    @Column(length = 64)
+    private String tokenId;
+
+    @Column(nullable = false, length = 128)
+    private byte[] wrappedKey;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public byte[] getWrappedKey() {
+        return wrappedKey;
+    }
+
+    public void setWrappedKey(byte[] wrappedKey) {
+        this.wrappedKey = wrappedKey;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.minilastpass.security;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SessionKeyRepository extends JpaRepository<SessionKeyEntity, String> {
+
+    Optional<SessionKeyEntity> findByTokenIdAndExpiresAtAfter(String tokenId, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SessionKeyEntity k where k.tokenId = :tokenId")
+    int deleteByTokenId(@Param("tokenId") String tokenId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from SessionKeyEntity k where k.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,7 +2,6 @@ package com.example.minilastpass.security;
 
 import com.example.minilastpass.user.UserEntity;
 import com.example.minilastpass.user.UserRepository;
-import java.util.UUID;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -12,21 +11,24 @@ import org.springframework.stereotype.Service;
 public class VaultUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final RevokedUserRegistry revokedUserRegistry;
 
-    public VaultUserDetailsService(UserRepository userRepository) {
+    public VaultUserDetailsService(UserRepository userRepository, RevokedUserRegistry revokedUserRegistry) {
         this.userRepository = userRepository;
+        this.revokedUserRegistry = revokedUserRegistry;
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        UserEntity user = userRepository.findByEmailIgnoreCase(email)
+        UserEntity user = userRepository.findByEmail(email.toLowerCase())
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         return new SecurityUser(user.getId(), user.getEmail(), user.getPasswordHash(), null);
     }
 
-    public SecurityUser loadUserById(UUID userId, byte[] vaultKey) {
-        UserEntity user = userRepository.findById(userId)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        return new SecurityUser(user.getId(), user.getEmail(), user.getPasswordHash(), vaultKey);
+    public SecurityUser loadUserFromToken(VerifiedToken token, byte[] vaultKey) {
+        if (revokedUserRegistry.isRevoked(token.userId(), token.issuedAt())) {
+            throw new UsernameNotFoundException("User sessions revoked");
+        }
+        return new SecurityUser(token.userId(), token.email(), null, vaultKey);
     }
 }
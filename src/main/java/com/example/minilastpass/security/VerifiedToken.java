@@ -0,0 +1,11 @@
+package com.example.minilastpass.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record VerifiedToken(UUID userId, String email, String tokenId, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.minilastpass.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class VerifiedTokenCache {
+
+    private final int maxEntries;
+    private final Map<ByteBuffer, VerifiedToken> entries = new ConcurrentHashMap<>();
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    VerifiedToken get(String token, Instant now) {
+        if (maxEntries == 0) {
+            return null;
+        }
+        ByteBuffer key = keyFor(token);
+        VerifiedToken cached = entries.get(key);
+        if (cached != null && cached.isExpired(now)) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    void put(String token, VerifiedToken verified) {
+        if (maxEntries == 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evictOne();
+        }
+        entries.put(keyFor(token), verified);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Evicts an arbitrary entry; with CHM iteration order this approximates random eviction in O(1).
+    private void evictOne() {
+        Iterator<ByteBuffer> iterator = entries.keySet().iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static ByteBuffer keyFor(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
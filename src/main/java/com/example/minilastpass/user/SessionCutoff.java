@@ -0,0 +1,11 @@
+package com.example.minilastpass.user;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface SessionCutoff {
+
+    UUID getId();
+
+    Instant getSessionsRevokedBefore();
+}
@@ -9,11 +9,17 @@ import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import java.util.UUID;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "users")
 public class UserEntity {
 
+    // Argon2 encoded hash for login plus a second Argon2 run for the vault key.
+    public static final int KDF_VERSION_LEGACY = 1;
+    // One Argon2 run; passwordHash holds an HKDF verifier derived from the vault key.
+    public static final int KDF_VERSION_SINGLE_PASS = 2;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -27,6 +33,34 @@ public class UserEntity {
     @Column(nullable = false)
     private String kdfSaltBase64;
 
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int kdfVersion = KDF_VERSION_LEGACY;
+
+    // Highest change sequence number handed out to this user's vault items.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long vaultRevision;
+
+    // The data key vault items are sealed under, itself sealed under the password-derived key. Null for
+    // accounts created before envelope encryption until their next login, which also bumps vaultKeyVersion.
+    @Column(length = 128)
+    private byte[] wrappedDataKey;
+
+    // Bumped whenever the key items are sealed under changes; vault items record the version they were
+    // sealed under, so rows from before and after a change coexist until they are re-encrypted.
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int vaultKeyVersion = 1;
+
+    // The previous item key sealed under the current one, kept until every item has been re-encrypted
+    // so a rotation interrupted by a restart can resume at the next login.
+    @Column(length = 128)
+    private byte[] retiredVaultKey;
+
+    // Tokens issued before this instant are refused; see RevokedUserRegistry.
+    private Instant sessionsRevokedBefore;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -67,6 +101,54 @@ public class UserEntity {
         this.kdfSaltBase64 = kdfSaltBase64;
     }
 
+    public int getKdfVersion() {
+        return kdfVersion;
+    }
+
+    public void setKdfVersion(int kdfVersion) {
+        this.kdfVersion = kdfVersion;
+    }
+
+    public long getVaultRevision() {
+        return vaultRevision;
+    }
+
+    public void setVaultRevision(long vaultRevision) {
+        this.vaultRevision = vaultRevision;
+    }
+
+    public byte[] getWrappedDataKey() {
+        return wrappedDataKey;
+    }
+
+    public void setWrappedDataKey(byte[] wrappedDataKey) {
+        this.wrappedDataKey = wrappedDataKey;
+    }
+
+    public int getVaultKeyVersion() {
+        return vaultKeyVersion;
+    }
+
+    public void setVaultKeyVersion(int vaultKeyVersion) {
+        this.vaultKeyVersion = vaultKeyVersion;
+    }
+
+    public byte[] getRetiredVaultKey() {
+        return retiredVaultKey;
+    }
+
+    public void setRetiredVaultKey(byte[] retiredVaultKey) {
+        this.retiredVaultKey = retiredVaultKey;
+    }
+
+    public Instant getSessionsRevokedBefore() {
+        return sessionsRevokedBefore;
+    }
+
+    public void setSessionsRevokedBefore(Instant sessionsRevokedBefore) {
+        this.sessionsRevokedBefore = sessionsRevokedBefore;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -1,10 +1,81 @@
 package com.example.minilastpass.user;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
-    Optional<UserEntity> findByEmailIgnoreCase(String email);
-    boolean existsByEmailIgnoreCase(String email);
+    // Emails are stored lower-cased; callers normalize, so the lookup is a plain equality the unique
+    // index on email can serve.
+    Optional<UserEntity> findByEmail(String email);
+    boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserEntity u set u.passwordHash = :passwordHash, u.kdfVersion = :kdfVersion "
+        + "where u.id = :id and u.kdfVersion < :kdfVersion")
+    int upgradeKdfVersion(@Param("id") UUID id, @Param("passwordHash") String passwordHash,
+                          @Param("kdfVersion") int kdfVersion);
+
+    // Moves an account sealed directly under its password-derived key onto a data key. Only one rotation
+    // at a time: refused while the previous retired key is still in place.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserEntity u set u.wrappedDataKey = :wrappedDataKey, "
+        + "u.vaultKeyVersion = u.vaultKeyVersion + 1, u.retiredVaultKey = :retiredVaultKey "
+        + "where u.id = :id and u.vaultKeyVersion = :vaultKeyVersion and u.retiredVaultKey is null "
+        + "and u.wrappedDataKey is null")
+    int adoptDataKey(@Param("id") UUID id, @Param("wrappedDataKey") byte[] wrappedDataKey,
+                     @Param("vaultKeyVersion") int vaultKeyVersion,
+                     @Param("retiredVaultKey") byte[] retiredVaultKey);
+
+    // A password change: new credentials and the same data key wrapped under the new password-derived key.
+    // Matching on the old hash makes two concurrent changes fail instead of racing.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserEntity u set u.passwordHash = :passwordHash, u.kdfSaltBase64 = :kdfSaltBase64, "
+        + "u.kdfVersion = :kdfVersion, u.wrappedDataKey = :wrappedDataKey "
+        + "where u.id = :id and u.passwordHash = :expectedPasswordHash")
+    int rewrapDataKey(@Param("id") UUID id, @Param("passwordHash") String passwordHash,
+                      @Param("kdfSaltBase64") String kdfSaltBase64, @Param("kdfVersion") int kdfVersion,
+                      @Param("wrappedDataKey") byte[] wrappedDataKey,
+                      @Param("expectedPasswordHash") String expectedPasswordHash);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserEntity u set u.retiredVaultKey = null "
+        + "where u.id = :id and u.vaultKeyVersion = :vaultKeyVersion")
+    int clearRetiredVaultKey(@Param("id") UUID id, @Param("vaultKeyVersion") int vaultKeyVersion);
+
+    @Query("select u.vaultKeyVersion from UserEntity u where u.id = :id")
+    int findVaultKeyVersion(@Param("id") UUID id);
+
+    // The row lock taken here is held until commit, so revisions become visible in allocation order.
+    @Modifying
+    @Query("update UserEntity u set u.vaultRevision = u.vaultRevision + :count where u.id = :id")
+    int advanceVaultRevision(@Param("id") UUID id, @Param("count") long count);
+
+    @Query("select u.vaultRevision from UserEntity u where u.id = :id")
+    long findVaultRevision(@Param("id") UUID id);
+
+    // Only ever moves the cutoff forward, so concurrent revocations keep the latest one.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update UserEntity u set u.sessionsRevokedBefore = :cutoff where u.id = :id "
+        + "and (u.sessionsRevokedBefore is null or u.sessionsRevokedBefore < :cutoff)")
+    int revokeSessionsBefore(@Param("id") UUID id, @Param("cutoff") Instant cutoff);
+
+    @Query("select u.id as id, u.sessionsRevokedBefore as sessionsRevokedBefore from UserEntity u "
+        + "where u.sessionsRevokedBefore > :since")
+    List<SessionCutoff> findSessionCutoffsSince(@Param("since") Instant since);
+
+    @Query("select u.id from UserEntity u where u.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 }
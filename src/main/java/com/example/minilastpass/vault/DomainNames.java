@@ -0,0 +1,135 @@
+package com.example.minilastpass.vault;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.IDN;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+// Host extraction and registrable-domain lookup for URL matching. Public suffixes come from
+// public_suffix_list.dat on the classpath, the unmodified list from https://publicsuffix.org/list/
+// (ICANN and private sections), with its wildcard and exception rules; a TLD no rule names is public.
+final class DomainNames {
+
+    private static final Set<String> RULES = new HashSet<>();
+    // "*.ck" is stored as "ck", "!www.ck" as "www.ck".
+    private static final Set<String> WILDCARDS = new HashSet<>();
+    private static final Set<String> EXCEPTIONS = new HashSet<>();
+
+    static {
+        loadPublicSuffixes("/public_suffix_list.dat");
+    }
+
+    private DomainNames() {
+    }
+
+    // Parses the host without java.net.URI so the per-request path stays cheap; returns null when
+    // the value has no dotted host. A leading "www." is dropped.
+    static String host(String url) {
+        if (url == null) {
+            return null;
+        }
+        String value = url.trim();
+        int start = value.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = value.length();
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+        int at = value.lastIndexOf('@', end - 1);
+        if (at >= start) {
+            start = at + 1;
+        }
+        int colon = value.indexOf(':', start);
+        if (colon >= 0 && colon < end) {
+            end = colon;
+        }
+        if (end > start && value.charAt(end - 1) == '.') {
+            end--;
+        }
+        if (value.regionMatches(true, start, "www.", 0, 4)) {
+            start += 4;
+        }
+        if (end - start < 3) {
+            return null;
+        }
+        boolean dotted = false;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (i == start || value.charAt(i - 1) == '.') {
+                    return null;
+                }
+                dotted = true;
+            } else if (Character.isWhitespace(c) || c == '[' || c == ']') {
+                return null;
+            }
+        }
+        return dotted ? value.substring(start, end).toLowerCase(Locale.ROOT) : null;
+    }
+
+    // "login.shop.example.co.uk" -> "example.co.uk": one label plus the longest public suffix. Candidate
+    // suffixes are tried from the longest, so the first public one is the longest match; an exception
+    // rule names a registrable domain outright. A host that is itself a public suffix is returned as is.
+    static String registrableDomain(String host) {
+        int previous = -1;
+        int start = 0;
+        while (true) {
+            int dot = host.indexOf('.', start);
+            String candidate = host.substring(start);
+            if (EXCEPTIONS.contains(candidate)) {
+                return candidate;
+            }
+            if (dot < 0 || RULES.contains(candidate) || WILDCARDS.contains(host.substring(dot + 1))) {
+                return previous < 0 ? host : host.substring(previous);
+            }
+            previous = start;
+            start = dot + 1;
+        }
+    }
+
+    private static void loadPublicSuffixes(String resource) {
+        try (InputStream in = DomainNames.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                return;
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // A rule is the first whitespace-separated token of a line.
+                String[] tokens = line.trim().split("\\s", 2);
+                String rule = tokens[0].toLowerCase(Locale.ROOT);
+                if (rule.isEmpty() || rule.startsWith("//")) {
+                    continue;
+                }
+                if (rule.startsWith("!")) {
+                    addRule(EXCEPTIONS, rule.substring(1));
+                } else if (rule.startsWith("*.")) {
+                    addRule(WILDCARDS, rule.substring(2));
+                } else {
+                    addRule(RULES, rule);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read " + resource, ex);
+        }
+    }
+
+    // Internationalized rules are listed in Unicode; hosts may arrive in either form.
+    private static void addRule(Set<String> rules, String rule) {
+        rules.add(rule);
+        String ascii = IDN.toASCII(rule, IDN.ALLOW_UNASSIGNED).toLowerCase(Locale.ROOT);
+        if (!ascii.equals(rule)) {
+            rules.add(ascii);
+        }
+    }
+}
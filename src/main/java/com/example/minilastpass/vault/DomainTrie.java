@@ -0,0 +1,120 @@
+package com.example.minilastpass.vault;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Item ids keyed by host with labels stored in reverse (com -> example -> login), so a domain and
+// all of its subdomains share one subtree. Not thread-safe; guarded by the owning index's lock.
+final class DomainTrie {
+
+    private final Node root = new Node();
+
+    void add(String host, UUID id) {
+        Node node = root;
+        int end = host.length();
+        while (end > 0) {
+            int dot = host.lastIndexOf('.', end - 1);
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            node = node.children.computeIfAbsent(host.substring(dot + 1, end), label -> new Node());
+            end = dot;
+        }
+        if (node.items == null) {
+            node.items = new HashSet<>(4);
+        }
+        node.items.add(id);
+    }
+
+    void remove(String host, UUID id) {
+        List<Node> path = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        Node node = root;
+        int end = host.length();
+        while (end > 0) {
+            int dot = host.lastIndexOf('.', end - 1);
+            String label = host.substring(dot + 1, end);
+            Node child = node.children == null ? null : node.children.get(label);
+            if (child == null) {
+                return;
+            }
+            path.add(node);
+            labels.add(label);
+            node = child;
+            end = dot;
+        }
+        if (node.items != null) {
+            node.items.remove(id);
+        }
+        // Prune now-empty leaves so churn does not leave dead branches behind.
+        for (int i = path.size() - 1; i >= 0 && node.isEmpty(); i--) {
+            Node parent = path.get(i);
+            parent.children.remove(labels.get(i));
+            node = parent;
+        }
+    }
+
+    // Items stored for the domain itself or any subdomain of it.
+    void collectSubtree(String domain, Collection<UUID> out) {
+        Node node = find(domain);
+        if (node != null) {
+            collectAll(node, out);
+        }
+    }
+
+    // Items stored exactly at the parent domains of host, up to and including stopAt.
+    void collectParents(String host, String stopAt, Collection<UUID> out) {
+        Node node = root;
+        int end = host.length();
+        while (end > 0) {
+            int dot = host.lastIndexOf('.', end - 1);
+            node = node.children == null ? null : node.children.get(host.substring(dot + 1, end));
+            if (node == null) {
+                return;
+            }
+            int suffixLength = host.length() - (dot + 1);
+            if (suffixLength >= stopAt.length() && suffixLength < host.length() && node.items != null) {
+                out.addAll(node.items);
+            }
+            end = dot;
+        }
+    }
+
+    private Node find(String domain) {
+        Node node = root;
+        int end = domain.length();
+        while (end > 0 && node != null) {
+            int dot = domain.lastIndexOf('.', end - 1);
+            node = node.children == null ? null : node.children.get(domain.substring(dot + 1, end));
+            end = dot;
+        }
+        return node;
+    }
+
+    private static void collectAll(Node node, Collection<UUID> out) {
+        if (node.items != null) {
+            out.addAll(node.items);
+        }
+        if (node.children != null) {
+            for (Node child : node.children.values()) {
+                collectAll(child, out);
+            }
+        }
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> children;
+        private Set<UUID> items;
+
+        boolean isEmpty() {
+            return (items == null || items.isEmpty()) && (children == null || children.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.minilastpass.vault;
+
+import java.util.UUID;
+
+public class RevealedSecret {
+
+    private UUID id;
+    private String secret;
+
+    public RevealedSecret(UUID id, String secret) {
+        this.id = id;
+        this.secret = secret;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+}
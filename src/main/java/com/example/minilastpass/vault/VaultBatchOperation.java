@@ -0,0 +1,74 @@
+package com.example.minilastpass.vault;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+public class VaultBatchOperation {
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    @NotNull
+    private Type op;
+
+    private UUID id;
+
+    private String title;
+
+    private String username;
+
+    private String url;
+
+    private String secret;
+
+    public Type getOp() {
+        return op;
+    }
+
+    public void setOp(Type op) {
+        this.op = op;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+}
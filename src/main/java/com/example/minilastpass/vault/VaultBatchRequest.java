@@ -0,0 +1,21 @@
+package com.example.minilastpass.vault;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class VaultBatchRequest {
+
+    @NotEmpty
+    @Size(max = VaultService.MAX_BATCH_SIZE, message = "Too many operations in one batch")
+    private List<@Valid VaultBatchOperation> operations;
+
+    public List<VaultBatchOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<VaultBatchOperation> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.minilastpass.vault;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaultBatchResult {
+
+    private int index;
+    private VaultBatchOperation.Type op;
+    private UUID id;
+    private int status;
+    private VaultItemView item;
+    private String error;
+
+    public VaultBatchResult(int index, VaultBatchOperation.Type op, UUID id, int status, VaultItemView item,
+                            String error) {
+        this.index = index;
+        this.op = op;
+        this.id = id;
+        this.status = status;
+        this.item = item;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public VaultBatchOperation.Type getOp() {
+        return op;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public VaultItemView getItem() {
+        return item;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.minilastpass.vault;
+
+import java.util.List;
+
+public class VaultChanges {
+
+    private List<VaultItemChange> changes;
+    private long revision;
+    private boolean hasMore;
+
+    public VaultChanges(List<VaultItemChange> changes, long revision, boolean hasMore) {
+        this.changes = changes;
+        this.revision = revision;
+        this.hasMore = hasMore;
+    }
+
+    public List<VaultItemChange> getChanges() {
+        return changes;
+    }
+
+    // Pass back as "since" on the next poll.
+    public long getRevision() {
+        return revision;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -2,10 +2,14 @@ package com.example.minilastpass.vault;
 
 import com.example.minilastpass.security.SecurityUser;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,7 +19,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 @RestController
@@ -23,14 +29,48 @@ import org.springframework.web.server.ResponseStatusException;
 public class VaultController {
 
     private final VaultService vaultService;
+    private final VaultTransferService vaultTransferService;
 
-    public VaultController(VaultService vaultService) {
+    public VaultController(VaultService vaultService, VaultTransferService vaultTransferService) {
         this.vaultService = vaultService;
+        this.vaultTransferService = vaultTransferService;
+    }
+
+    // The whole list only when neither paging parameter is given; either one selects the paged handler.
+    @GetMapping(params = {"!limit", "!after"})
+    public ResponseEntity<List<VaultItemView>> list(@AuthenticationPrincipal SecurityUser user, WebRequest request) {
+        SecurityUser owner = requireUser(user);
+        String eTag = vaultService.listETag(owner);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(vaultService.listItems(owner));
     }
 
     @GetMapping
-    public List<VaultItemView> list(@AuthenticationPrincipal SecurityUser user) {
-        return vaultService.listItems(requireUser(user));
+    public VaultItemPage page(@AuthenticationPrincipal SecurityUser user,
+                              @RequestParam(value = "after", required = false) String after,
+                              @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return vaultService.listPage(requireUser(user), after, limit);
+    }
+
+    @GetMapping("/search")
+    public VaultItemPage search(@AuthenticationPrincipal SecurityUser user, @RequestParam("q") String query,
+                                @RequestParam(value = "after", required = false) String after,
+                                @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        return vaultService.search(requireUser(user), query, after, limit);
+    }
+
+    @GetMapping("/match")
+    public List<VaultItemView> match(@AuthenticationPrincipal SecurityUser user, @RequestParam("url") String url) {
+        return vaultService.match(requireUser(user), url);
+    }
+
+    @GetMapping("/changes")
+    public VaultChanges changes(@AuthenticationPrincipal SecurityUser user,
+                                @RequestParam(value = "since", defaultValue = "0") long since,
+                                @RequestParam(value = "limit", defaultValue = "500") int limit) {
+        return vaultService.listChanges(requireUser(user), since, limit);
     }
 
     @PostMapping
@@ -40,6 +80,12 @@ public class VaultController {
         return ResponseEntity.status(HttpStatus.CREATED).body(view);
     }
 
+    @PostMapping("/batch")
+    public List<VaultBatchResult> batch(@AuthenticationPrincipal SecurityUser user,
+                                        @Valid @RequestBody VaultBatchRequest request) {
+        return vaultService.applyBatch(requireUser(user), request.getOperations());
+    }
+
     @PutMapping("/{id}")
     public VaultItemView update(@AuthenticationPrincipal SecurityUser user, @PathVariable("id") UUID id,
                                 @Valid @RequestBody VaultItemUpdateRequest request) {
@@ -52,12 +98,35 @@ public class VaultController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/reveal")
+    public VaultRevealResponse revealMany(@AuthenticationPrincipal SecurityUser user,
+                                          @Valid @RequestBody VaultRevealRequest body, HttpServletRequest request) {
+        return vaultService.revealSecrets(requireUser(user), body.getIds(), request.getRemoteAddr());
+    }
+
     @GetMapping("/{id}/reveal")
     public RevealResponse reveal(@AuthenticationPrincipal SecurityUser user, @PathVariable("id") UUID id,
                                  HttpServletRequest request) {
         return vaultService.revealSecret(requireUser(user), id, request.getRemoteAddr());
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void export(@AuthenticationPrincipal SecurityUser user, HttpServletResponse response) throws IOException {
+        SecurityUser owner = requireUser(user);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"vault.ndjson\"");
+        vaultTransferService.exportItems(owner, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+        produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importItems(@AuthenticationPrincipal SecurityUser user, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        SecurityUser owner = requireUser(user);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        vaultTransferService.importItems(owner, request.getInputStream(), response.getOutputStream());
+    }
+
     private SecurityUser requireUser(SecurityUser user) {
         if (user == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
@@ -0,0 +1,35 @@
+package com.example.minilastpass.vault;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaultImportProgress {
+
+    private long imported;
+    private boolean completed;
+    private Long line;
+    private String error;
+
+    public VaultImportProgress(long imported, boolean completed, Long line, String error) {
+        this.imported = imported;
+        this.completed = completed;
+        this.line = line;
+        this.error = error;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
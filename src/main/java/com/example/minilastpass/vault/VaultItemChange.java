@@ -0,0 +1,36 @@
+package com.example.minilastpass.vault;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaultItemChange {
+
+    private UUID id;
+    private long revision;
+    private boolean deleted;
+    private VaultItemView item;
+
+    public VaultItemChange(UUID id, long revision, boolean deleted, VaultItemView item) {
+        this.id = id;
+        this.revision = revision;
+        this.deleted = deleted;
+        this.item = item;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public VaultItemView getItem() {
+        return item;
+    }
+}
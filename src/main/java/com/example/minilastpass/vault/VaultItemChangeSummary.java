@@ -0,0 +1,8 @@
+package com.example.minilastpass.vault;
+
+public interface VaultItemChangeSummary extends VaultItemSummary {
+
+    long getRevision();
+
+    boolean isDeleted();
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -14,9 +15,17 @@ import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import java.time.Instant;
 import java.util.UUID;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
+// Dynamic updates keep metadata edits from rewriting sealed_secret and key_version, which the key
+// rotation job may have replaced since the row was loaded.
 @Entity
-@Table(name = "vault_items")
+@DynamicUpdate
+@Table(name = "vault_items", indexes = {
+    @Index(name = "idx_vault_items_user_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_vault_items_user_revision", columnList = "user_id, revision")
+})
 public class VaultItemEntity {
 
     @Id
@@ -35,11 +44,32 @@ public class VaultItemEntity {
 
     private String url;
 
+    // Legacy storage: Base64 ciphertext and nonce in separate columns. Rows written in the sealed
+    // format keep these empty until a schema migration drops them.
     @Column(nullable = false, length = 2048)
-    private String encryptedSecretBase64;
+    private String encryptedSecretBase64 = "";
 
     @Column(nullable = false, length = 256)
-    private String nonceBase64;
+    private String nonceBase64 = "";
+
+    // nonce || ciphertext || tag as raw bytes (VARBINARY).
+    @Column(length = 2048)
+    private byte[] sealedSecret;
+
+    // UserEntity.vaultKeyVersion at the time the secret was sealed; older rows still await re-encryption.
+    @Column(nullable = false)
+    @ColumnDefault("1")
+    private int keyVersion = 1;
+
+    // Per-user change sequence number of the last mutation, including deletion.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long revision;
+
+    // Tombstone kept so delta sync clients learn about deletions.
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean deleted;
 
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
@@ -50,7 +80,9 @@ public class VaultItemEntity {
     @PrePersist
     void onCreate() {
         Instant now = Instant.now();
-        this.createdAt = now;
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
         this.updatedAt = now;
     }
 
@@ -115,6 +147,53 @@ public class VaultItemEntity {
         this.nonceBase64 = nonceBase64;
     }
 
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    public void setKeyVersion(int keyVersion) {
+        this.keyVersion = keyVersion;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    // Turns the row into a tombstone and drops everything but its identity.
+    public void markDeleted(long revision) {
+        this.deleted = true;
+        this.revision = revision;
+        this.title = "";
+        this.username = "";
+        this.url = null;
+        this.encryptedSecretBase64 = "";
+        this.nonceBase64 = "";
+        this.sealedSecret = null;
+    }
+
+    public byte[] getSealedSecret() {
+        return sealedSecret;
+    }
+
+    // Stores the secret in the sealed format and clears the legacy columns.
+    public void setSealedSecret(byte[] sealedSecret) {
+        this.sealedSecret = sealedSecret;
+        this.encryptedSecretBase64 = "";
+        this.nonceBase64 = "";
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
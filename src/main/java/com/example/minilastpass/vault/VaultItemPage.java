@@ -0,0 +1,22 @@
+package com.example.minilastpass.vault;
+
+import java.util.List;
+
+public class VaultItemPage {
+
+    private List<VaultItemView> items;
+    private String nextCursor;
+
+    public VaultItemPage(List<VaultItemView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<VaultItemView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
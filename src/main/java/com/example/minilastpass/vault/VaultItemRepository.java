@@ -1,11 +1,49 @@
 package com.example.minilastpass.vault;
 
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 public interface VaultItemRepository extends JpaRepository<VaultItemEntity, UUID> {
-    List<VaultItemEntity> findAllByUser_IdOrderByCreatedAtAsc(UUID userId);
-    Optional<VaultItemEntity> findByIdAndUser_Id(UUID id, UUID userId);
+    Optional<VaultItemEntity> findByIdAndUser_IdAndDeletedFalse(UUID id, UUID userId);
+    List<VaultItemEntity> findAllByUser_IdAndIdInAndDeletedFalse(UUID userId, Collection<UUID> ids);
+
+    @Query("select i.id as id, i.title as title, i.username as username, i.url as url, "
+        + "i.createdAt as createdAt, i.updatedAt as updatedAt from VaultItemEntity i "
+        + "where i.user.id = :userId and i.deleted = false order by i.createdAt asc, i.id asc")
+    List<VaultItemSummary> findSummaries(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("select i.id as id, i.title as title, i.username as username, i.url as url, "
+        + "i.createdAt as createdAt, i.updatedAt as updatedAt from VaultItemEntity i "
+        + "where i.user.id = :userId and i.deleted = false "
+        + "and (i.createdAt > :createdAt or (i.createdAt = :createdAt and i.id > :id)) "
+        + "order by i.createdAt asc, i.id asc")
+    List<VaultItemSummary> findSummariesAfter(@Param("userId") UUID userId, @Param("createdAt") Instant createdAt,
+                                              @Param("id") UUID id, Pageable pageable);
+
+    @Query("select coalesce(max(i.revision), 0) as revision, "
+        + "coalesce(sum(case when i.deleted = false then 1 else 0 end), 0) as itemCount "
+        + "from VaultItemEntity i where i.user.id = :userId")
+    VaultListVersion findListVersion(@Param("userId") UUID userId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select i from VaultItemEntity i where i.user.id = :userId and i.deleted = false "
+        + "order by i.createdAt asc, i.id asc")
+    Stream<VaultItemEntity> streamAllByUserId(@Param("userId") UUID userId);
+
+    @Query("select i.id as id, i.title as title, i.username as username, i.url as url, "
+        + "i.createdAt as createdAt, i.updatedAt as updatedAt, i.revision as revision, i.deleted as deleted "
+        + "from VaultItemEntity i where i.user.id = :userId and i.revision > :since order by i.revision asc")
+    List<VaultItemChangeSummary> findChangesSince(@Param("userId") UUID userId, @Param("since") long since,
+                                                  Pageable pageable);
 }
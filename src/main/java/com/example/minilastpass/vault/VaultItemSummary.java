@@ -0,0 +1,20 @@
+package com.example.minilastpass.vault;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Metadata-only projection; never selects the ciphertext columns.
+public interface VaultItemSummary {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getUsername();
+
+    String getUrl();
+
+    Instant getCreatedAt();
+
+    Instant getUpdatedAt();
+}
@@ -0,0 +1,259 @@
+package com.example.minilastpass.vault;
+
+import com.example.minilastpass.config.VaultProperties;
+import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.user.UserEntity;
+import com.example.minilastpass.user.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Re-encrypts a user's vault when the key its items are sealed under changes, as when an account
+// created before envelope encryption moves from its password-derived key to a data key. Items are read
+// in id order a chunk at a time, opened with the retired key and sealed with the new one in parallel,
+// and written back in a JDBC batch. Each write is conditional on the row's key version, so a concurrent
+// edit (already sealed with the new key) wins, and a run can stop at any point: the retired key stays
+// on the user row until no item needs it, and the next login resumes from whatever is left.
+@Component
+public class VaultKeyRotation implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VaultKeyRotation.class);
+    // How long GET /api/auth/key-rotation keeps reporting a run's outcome after it ends.
+    private static final long FINISHED_RETENTION_NANOS = Duration.ofMinutes(10).toNanos();
+
+    private static final String COUNT_PENDING = "select count(*) from vault_items "
+        + "where user_id = ? and key_version < ? and deleted = false";
+    private static final String SELECT_FIRST = "select id, sealed_secret, encrypted_secret_base64, nonce_base64, "
+        + "key_version from vault_items where user_id = ? and key_version < ? and deleted = false "
+        + "order by id fetch first ? rows only";
+    private static final String SELECT_NEXT = "select id, sealed_secret, encrypted_secret_base64, nonce_base64, "
+        + "key_version from vault_items where user_id = ? and key_version < ? and deleted = false and id > ? "
+        + "order by id fetch first ? rows only";
+    // The plaintext is unchanged, so updated_at and the sync revision are left alone.
+    private static final String UPDATE_SEALED = "update vault_items set sealed_secret = ?, "
+        + "encrypted_secret_base64 = '', nonce_base64 = '', key_version = ? where id = ? and key_version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CryptoService cryptoService;
+    private final UserRepository userRepository;
+    private final int batchSize;
+    private final ForkJoinPool pool;
+    private final Map<UUID, Job> jobs = new ConcurrentHashMap<>();
+
+    public VaultKeyRotation(JdbcTemplate jdbcTemplate, CryptoService cryptoService, UserRepository userRepository,
+                            VaultProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cryptoService = cryptoService;
+        this.userRepository = userRepository;
+        this.batchSize = properties.getKeyRotationBatchSize();
+        int parallelism = properties.getKeyRotationParallelism() > 0
+            ? properties.getKeyRotationParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public byte[] wrapRetiredKey(UUID userId, int keyVersion, byte[] retiredKey, byte[] currentKey) {
+        return cryptoService.seal(currentKey, retiredKey, retiredKeyAad(userId, keyVersion));
+    }
+
+    // Throws IllegalStateException when currentKey is not the key the retired key was wrapped under.
+    public byte[] unwrapRetiredKey(UserEntity user, byte[] currentKey) {
+        if (user.getRetiredVaultKey() == null) {
+            throw new IllegalStateException("No retired vault key for user " + user.getId());
+        }
+        return cryptoService.open(currentKey, user.getRetiredVaultKey(),
+            retiredKeyAad(user.getId(), user.getVaultKeyVersion()));
+    }
+
+    // Starts re-encrypting in the background unless a run for the same key version is already going.
+    public VaultKeyRotationProgress start(UUID userId, int keyVersion, byte[] retiredKey, byte[] currentKey) {
+        Job job = new Job(keyVersion);
+        Job current = jobs.compute(userId, (id, existing) ->
+            existing != null && !existing.finished && existing.keyVersion == keyVersion ? existing : job);
+        if (current == job) {
+            byte[] retired = retiredKey.clone();
+            byte[] next = currentKey.clone();
+            pool.execute(() -> {
+                try {
+                    rotate(userId, job, retired, next);
+                } finally {
+                    Arrays.fill(retired, (byte) 0);
+                    Arrays.fill(next, (byte) 0);
+                }
+            });
+        }
+        return current.progress();
+    }
+
+    // Picks up a rotation left unfinished by a restart; called once the user's current key is known.
+    public void resume(UserEntity user, byte[] currentKey) {
+        if (user.getRetiredVaultKey() == null) {
+            return;
+        }
+        Job existing = jobs.get(user.getId());
+        if (existing != null && !existing.finished && existing.keyVersion == user.getVaultKeyVersion()) {
+            return;
+        }
+        byte[] retiredKey;
+        try {
+            retiredKey = unwrapRetiredKey(user, currentKey);
+        } catch (IllegalStateException ex) {
+            log.warn("Cannot resume vault key rotation user={}: retired key does not open", user.getId());
+            return;
+        }
+        try {
+            start(user.getId(), user.getVaultKeyVersion(), retiredKey, currentKey);
+        } finally {
+            Arrays.fill(retiredKey, (byte) 0);
+        }
+    }
+
+    public VaultKeyRotationProgress progress(UUID userId) {
+        Job job = jobs.get(userId);
+        return job == null ? null : job.progress();
+    }
+
+    // Finished runs are dropped once their outcome has been reportable for a while; the rows themselves
+    // say whether anything is left, so a later login still resumes what a failed run left behind.
+    @Scheduled(fixedDelayString = "PT1M")
+    void pruneFinished() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.finished && now - job.finishedAt > FINISHED_RETENTION_NANOS);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private void rotate(UUID userId, Job job, byte[] retiredKey, byte[] currentKey) {
+        long start = System.nanoTime();
+        try {
+            job.total.set(countPending(userId, job.keyVersion));
+            UUID after = null;
+            List<PendingItem> chunk;
+            do {
+                chunk = readChunk(userId, job.keyVersion, after);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                after = chunk.get(chunk.size() - 1).id();
+                // Runs on this pool's workers: the driver is itself a task of the same pool.
+                List<Object[]> updates = chunk.parallelStream()
+                    .map(item -> reseal(item, job, retiredKey, currentKey))
+                    .filter(Objects::nonNull)
+                    .toList();
+                if (!updates.isEmpty()) {
+                    for (int count : jdbcTemplate.batchUpdate(UPDATE_SEALED, updates)) {
+                        if (count != 0) {
+                            job.rotated.incrementAndGet();
+                        }
+                    }
+                }
+            } while (chunk.size() == batchSize);
+            long remaining = countPending(userId, job.keyVersion);
+            if (remaining == 0) {
+                userRepository.clearRetiredVaultKey(userId, job.keyVersion);
+            } else {
+                job.error = remaining + " items could not be re-encrypted";
+            }
+            log.info("Vault key rotation user={} version={} rotated={} failed={} remaining={} in {} ms", userId,
+                job.keyVersion, job.rotated.get(), job.failed.get(), remaining,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            job.error = "Rotation interrupted; it resumes at the next login";
+            log.error("Vault key rotation failed user={} version={}", userId, job.keyVersion, ex);
+        } finally {
+            job.finishedAt = System.nanoTime();
+            job.finished = true;
+        }
+    }
+
+    private Object[] reseal(PendingItem item, Job job, byte[] retiredKey, byte[] currentKey) {
+        if (item.sealed() == null) {
+            job.failed.incrementAndGet();
+            log.warn("Vault item {} has malformed legacy ciphertext; left as is", item.id());
+            return null;
+        }
+        byte[] plaintext;
+        try {
+            plaintext = cryptoService.open(retiredKey, item.sealed());
+        } catch (IllegalStateException ex) {
+            job.failed.incrementAndGet();
+            log.warn("Vault item {} does not open with the retired key; left as is", item.id());
+            return null;
+        }
+        try {
+            return new Object[] {cryptoService.seal(currentKey, plaintext), job.keyVersion, item.id(),
+                item.keyVersion()};
+        } finally {
+            Arrays.fill(plaintext, (byte) 0);
+        }
+    }
+
+    private long countPending(UUID userId, int keyVersion) {
+        Long count = jdbcTemplate.queryForObject(COUNT_PENDING, Long.class, userId, keyVersion);
+        return count == null ? 0 : count;
+    }
+
+    private List<PendingItem> readChunk(UUID userId, int keyVersion, UUID after) {
+        List<PendingItem> chunk = new ArrayList<>(batchSize);
+        Object[] args = after == null
+            ? new Object[] {userId, keyVersion, batchSize}
+            : new Object[] {userId, keyVersion, after, batchSize};
+        jdbcTemplate.query(after == null ? SELECT_FIRST : SELECT_NEXT, rs -> {
+            byte[] sealed = rs.getBytes(2);
+            if (sealed == null) {
+                try {
+                    sealed = CryptoService.toSealed(rs.getString(3), rs.getString(4));
+                } catch (IllegalArgumentException ex) {
+                    sealed = null;
+                }
+            }
+            chunk.add(new PendingItem(rs.getObject(1, UUID.class), sealed, rs.getInt(5)));
+        }, args);
+        return chunk;
+    }
+
+    private static byte[] retiredKeyAad(UUID userId, int keyVersion) {
+        return ("minilastpass/retired-vault-key/" + userId + "/" + keyVersion).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record PendingItem(UUID id, byte[] sealed, int keyVersion) {
+    }
+
+    private static final class Job {
+
+        private final int keyVersion;
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong rotated = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile boolean finished;
+        // Written before finished, so it is valid whenever finished reads true.
+        private volatile long finishedAt;
+        private volatile String error;
+
+        Job(int keyVersion) {
+            this.keyVersion = keyVersion;
+        }
+
+        VaultKeyRotationProgress progress() {
+            return new VaultKeyRotationProgress(keyVersion, total.get(), rotated.get(), failed.get(),
+                finished && error == null, error);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.minilastpass.vault;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaultKeyRotationProgress {
+
+    private int keyVersion;
+    private long total;
+    private long rotated;
+    private long failed;
+    private boolean completed;
+    private String error;
+
+    public VaultKeyRotationProgress(int keyVersion, long total, long rotated, long failed, boolean completed,
+                                    String error) {
+        this.keyVersion = keyVersion;
+        this.total = total;
+        this.rotated = rotated;
+        this.failed = failed;
+        this.completed = completed;
+        this.error = error;
+    }
+
+    public int getKeyVersion() {
+        return keyVersion;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getRotated() {
+        return rotated;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.minilastpass.vault;
+
+public interface VaultListVersion {
+
+    long getRevision();
+
+    long getItemCount();
+
+    default String toETag() {
+        return "\"v" + getRevision() + "-" + getItemCount() + "\"";
+    }
+}
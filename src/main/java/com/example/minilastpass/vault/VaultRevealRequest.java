@@ -0,0 +1,22 @@
+package com.example.minilastpass.vault;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+public class VaultRevealRequest {
+
+    @NotEmpty
+    @Size(max = VaultService.MAX_BATCH_SIZE, message = "Too many items in one reveal")
+    private List<@NotNull UUID> ids;
+
+    public List<UUID> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<UUID> ids) {
+        this.ids = ids;
+    }
+}
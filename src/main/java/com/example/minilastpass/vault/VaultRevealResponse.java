@@ -0,0 +1,23 @@
+package com.example.minilastpass.vault;
+
+import java.util.List;
+import java.util.UUID;
+
+public class VaultRevealResponse {
+
+    private List<RevealedSecret> items;
+    private List<UUID> notFound;
+
+    public VaultRevealResponse(List<RevealedSecret> items, List<UUID> notFound) {
+        this.items = items;
+        this.notFound = notFound;
+    }
+
+    public List<RevealedSecret> getItems() {
+        return items;
+    }
+
+    public List<UUID> getNotFound() {
+        return notFound;
+    }
+}
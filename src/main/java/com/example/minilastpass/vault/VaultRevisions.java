@@ -0,0 +1,31 @@
+package com.example.minilastpass.vault;
+
+import com.example.minilastpass.user.UserRepository;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+class VaultRevisions {
+
+    private final UserRepository userRepository;
+
+    VaultRevisions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Reserves a contiguous block of revisions and returns the first one. Must run inside the
+    // transaction that writes the items so the block commits together with them.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long allocate(UUID userId, int count) {
+        if (userRepository.advanceVaultRevision(userId, count) != 1) {
+            throw new IllegalStateException("User " + userId + " not found");
+        }
+        return userRepository.findVaultRevision(userId) - count + 1;
+    }
+
+    public long current(UUID userId) {
+        return userRepository.findVaultRevision(userId);
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.minilastpass.vault;
+
+import com.example.minilastpass.common.PageCursor;
+import com.example.minilastpass.config.VaultProperties;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+// Per-user inverted index over item metadata plus a domain trie for URL matching, built on the first
+// search and kept current by replaying the revision change feed, so writes on any replica are picked
+// up before the next search answers.
+@Component
+class VaultSearchIndex {
+
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final Comparator<IndexedItem> ORDER = Comparator.comparing(IndexedItem::createdAt)
+        .thenComparing(IndexedItem::id);
+
+    private final VaultItemRepository vaultItemRepository;
+    private final VaultRevisions vaultRevisions;
+    private final int maxUsers;
+    // Access-ordered so the least recently searched vault is dropped first.
+    private final LinkedHashMap<UUID, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock indexesLock = new ReentrantLock();
+
+    VaultSearchIndex(VaultItemRepository vaultItemRepository, VaultRevisions vaultRevisions,
+                     VaultProperties properties) {
+        this.vaultItemRepository = vaultItemRepository;
+        this.vaultRevisions = vaultRevisions;
+        this.maxUsers = properties.getSearchIndexUsers();
+    }
+
+    VaultItemPage search(UUID userId, String query, PageCursor after, int limit) {
+        UserIndex index = indexFor(userId);
+        catchUp(userId, index);
+        index.lock.readLock().lock();
+        try {
+            return index.search(query, after, limit);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    List<VaultItemView> match(UUID userId, String host) {
+        UserIndex index = indexFor(userId);
+        catchUp(userId, index);
+        index.lock.readLock().lock();
+        try {
+            return index.match(host);
+        } finally {
+            index.lock.readLock().unlock();
+        }
+    }
+
+    private UserIndex indexFor(UUID userId) {
+        indexesLock.lock();
+        try {
+            UserIndex index = indexes.get(userId);
+            if (index == null) {
+                index = new UserIndex();
+                indexes.put(userId, index);
+                if (indexes.size() > maxUsers) {
+                    Iterator<UserIndex> eldest = indexes.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            return index;
+        } finally {
+            indexesLock.unlock();
+        }
+    }
+
+    // Revisions become visible in allocation order, so replaying everything above the watermark
+    // never skips a change that commits late.
+    private void catchUp(UUID userId, UserIndex index) {
+        if (vaultRevisions.current(userId) <= index.revision) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            List<VaultItemChangeSummary> changes;
+            do {
+                changes = vaultItemRepository.findChangesSince(userId, index.revision,
+                    PageRequest.ofSize(CATCH_UP_PAGE_SIZE));
+                for (VaultItemChangeSummary change : changes) {
+                    index.remove(change.getId());
+                    if (!change.isDeleted()) {
+                        index.add(change);
+                    }
+                    index.revision = change.getRevision();
+                }
+            } while (changes.size() == CATCH_UP_PAGE_SIZE);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word);
+            }
+        }
+        return terms;
+    }
+
+    // The view is immutable and built once, so serving a hit allocates nothing per item.
+    private record IndexedItem(UUID id, Instant createdAt, Set<String> terms, String host, VaultItemView view) {
+    }
+
+    private static final class UserIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<UUID, IndexedItem> items = new HashMap<>();
+        private final NavigableSet<IndexedItem> ordered = new TreeSet<>(ORDER);
+        private final TreeMap<String, Set<UUID>> terms = new TreeMap<>();
+        private final DomainTrie domains = new DomainTrie();
+        private volatile long revision;
+
+        void add(VaultItemSummary summary) {
+            Set<String> itemTerms = new HashSet<>();
+            itemTerms.addAll(VaultSearchIndex.terms(summary.getTitle()));
+            itemTerms.addAll(VaultSearchIndex.terms(summary.getUsername()));
+            itemTerms.addAll(VaultSearchIndex.terms(summary.getUrl()));
+            String host = DomainNames.host(summary.getUrl());
+            VaultItemView view = new VaultItemView(summary.getId(), summary.getTitle(), summary.getUsername(),
+                summary.getUrl(), summary.getCreatedAt(), summary.getUpdatedAt());
+            IndexedItem item = new IndexedItem(summary.getId(), summary.getCreatedAt(), itemTerms, host, view);
+            items.put(item.id(), item);
+            ordered.add(item);
+            for (String term : itemTerms) {
+                terms.computeIfAbsent(term, t -> new HashSet<>()).add(item.id());
+            }
+            if (host != null) {
+                domains.add(host, item.id());
+            }
+        }
+
+        void remove(UUID id) {
+            IndexedItem item = items.remove(id);
+            if (item == null) {
+                return;
+            }
+            ordered.remove(item);
+            for (String term : item.terms()) {
+                removePosting(terms, term, id);
+            }
+            if (item.host() != null) {
+                domains.remove(item.host(), id);
+            }
+        }
+
+        // Every item sharing the registrable domain of the page host, in list order.
+        List<VaultItemView> match(String host) {
+            List<UUID> ids = new ArrayList<>();
+            domains.collectSubtree(DomainNames.registrableDomain(host), ids);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            List<IndexedItem> hits = new ArrayList<>(ids.size());
+            for (UUID id : ids) {
+                hits.add(items.get(id));
+            }
+            hits.sort(ORDER);
+            List<VaultItemView> views = new ArrayList<>(hits.size());
+            for (IndexedItem item : hits) {
+                views.add(item.view());
+            }
+            return views;
+        }
+
+        VaultItemPage search(String query, PageCursor after, int limit) {
+            Set<UUID> matches = null;
+            for (String part : query.trim().split("\\s+")) {
+                Set<UUID> partMatches = matchPart(part);
+                if (matches == null) {
+                    matches = partMatches;
+                } else {
+                    matches.retainAll(partMatches);
+                }
+                if (matches.isEmpty()) {
+                    return new VaultItemPage(List.of(), null);
+                }
+            }
+            return page(matches == null ? Set.of() : matches, after, limit);
+        }
+
+        // Each word of a query part must prefix-match some term; a part that parses as a host also
+        // matches items on that domain, its subdomains, or a parent domain down to the registrable one.
+        private Set<UUID> matchPart(String part) {
+            Set<UUID> matches = null;
+            for (String word : VaultSearchIndex.terms(part)) {
+                Set<UUID> wordMatches = new HashSet<>();
+                for (Set<UUID> postings : terms.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    wordMatches.addAll(postings);
+                }
+                if (matches == null) {
+                    matches = wordMatches;
+                } else {
+                    matches.retainAll(wordMatches);
+                }
+            }
+            if (matches == null) {
+                matches = new HashSet<>();
+            }
+            String host = DomainNames.host(part);
+            if (host != null) {
+                domains.collectSubtree(host, matches);
+                domains.collectParents(host, DomainNames.registrableDomain(host), matches);
+            }
+            return matches;
+        }
+
+        private VaultItemPage page(Set<UUID> matches, PageCursor after, int limit) {
+            List<IndexedItem> window = new ArrayList<>(limit + 1);
+            if (matches.size() * 8L < ordered.size()) {
+                // Few hits: sorting them is cheaper than walking the whole vault.
+                List<IndexedItem> hits = new ArrayList<>(matches.size());
+                for (UUID id : matches) {
+                    IndexedItem item = items.get(id);
+                    if (item != null && isAfter(item, after)) {
+                        hits.add(item);
+                    }
+                }
+                hits.sort(ORDER);
+                window.addAll(hits.subList(0, Math.min(hits.size(), limit + 1)));
+            } else {
+                for (IndexedItem item : ordered) {
+                    if (window.size() > limit) {
+                        break;
+                    }
+                    if (matches.contains(item.id()) && isAfter(item, after)) {
+                        window.add(item);
+                    }
+                }
+            }
+            boolean hasMore = window.size() > limit;
+            List<VaultItemView> views = new ArrayList<>(Math.min(window.size(), limit));
+            for (int i = 0; i < window.size() && i < limit; i++) {
+                views.add(window.get(i).view());
+            }
+            String nextCursor = null;
+            if (hasMore) {
+                IndexedItem last = window.get(limit - 1);
+                nextCursor = new PageCursor(last.createdAt(), last.id()).encode();
+            }
+            return new VaultItemPage(views, nextCursor);
+        }
+
+        private static boolean isAfter(IndexedItem item, PageCursor after) {
+            if (after == null) {
+                return true;
+            }
+            int byTime = item.createdAt().compareTo(after.timestamp());
+            return byTime > 0 || (byTime == 0 && item.id().compareTo(after.id()) > 0);
+        }
+
+        private static void removePosting(Map<String, Set<UUID>> postings, String key, UUID id) {
+            Set<UUID> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+}
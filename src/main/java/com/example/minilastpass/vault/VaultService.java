@@ -1,109 +1,414 @@
 package com.example.minilastpass.vault;
 
+import com.example.minilastpass.audit.AuditEventType;
+import com.example.minilastpass.audit.AuditLog;
+import com.example.minilastpass.common.PageCursor;
+import com.example.minilastpass.config.VaultProperties;
 import com.example.minilastpass.crypto.CryptoService;
 import com.example.minilastpass.rate.RateLimiterService;
 import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.user.UserEntity;
 import com.example.minilastpass.user.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.stream.Stream;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
+@Timed(value = "minilastpass.vault", description = "Vault service calls, tagged by method")
 public class VaultService {
 
-    private static final Logger log = LoggerFactory.getLogger(VaultService.class);
     private static final Duration REVEAL_WINDOW = Duration.ofMinutes(5);
     private static final int REVEAL_MAX = 5;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 500;
+    static final int MAX_QUERY_LENGTH = 256;
+    // Below this, a parallel stream costs more in task handoff than the AES-GCM work it spreads.
+    private static final int PARALLEL_REVEAL_THRESHOLD = 64;
 
     private final VaultItemRepository vaultItemRepository;
     private final CryptoService cryptoService;
     private final RateLimiterService rateLimiterService;
     private final UserRepository userRepository;
+    private final VaultRevisions vaultRevisions;
+    private final VaultSearchIndex vaultSearchIndex;
+    private final VaultKeyRotation vaultKeyRotation;
+    private final AuditLog auditLog;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int revealItemsPerPermit;
 
     public VaultService(VaultItemRepository vaultItemRepository, CryptoService cryptoService,
-                        RateLimiterService rateLimiterService, UserRepository userRepository) {
+                        RateLimiterService rateLimiterService, UserRepository userRepository,
+                        VaultRevisions vaultRevisions, VaultSearchIndex vaultSearchIndex,
+                        VaultKeyRotation vaultKeyRotation, AuditLog auditLog,
+                        PlatformTransactionManager transactionManager, VaultProperties properties) {
         this.vaultItemRepository = vaultItemRepository;
         this.cryptoService = cryptoService;
         this.rateLimiterService = rateLimiterService;
         this.userRepository = userRepository;
+        this.vaultRevisions = vaultRevisions;
+        this.vaultSearchIndex = vaultSearchIndex;
+        this.vaultKeyRotation = vaultKeyRotation;
+        this.auditLog = auditLog;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.revealItemsPerPermit = properties.getRevealItemsPerPermit();
     }
 
     @Transactional(readOnly = true)
     public List<VaultItemView> listItems(SecurityUser user) {
-        return vaultItemRepository.findAllByUser_IdOrderByCreatedAtAsc(user.getId()).stream()
-            .map(item -> new VaultItemView(item.getId(), item.getTitle(), item.getUsername(), item.getUrl(),
-                item.getCreatedAt(), item.getUpdatedAt()))
+        return vaultItemRepository.findSummaries(user.getId(), Pageable.unpaged()).stream()
+            .map(this::toView)
             .collect(Collectors.toList());
     }
 
+    // Every mutation, deletes included, advances the revision, so the pair identifies the list
+    // content without loading it.
+    @Transactional(readOnly = true)
+    public String listETag(SecurityUser user) {
+        return vaultItemRepository.findListVersion(user.getId()).toETag();
+    }
+
+    @Transactional(readOnly = true)
+    public VaultItemPage listPage(SecurityUser user, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // One extra row tells us whether another page follows without a count query.
+        Pageable window = PageRequest.ofSize(limit + 1);
+        List<VaultItemSummary> rows;
+        if (after == null || after.isBlank()) {
+            rows = vaultItemRepository.findSummaries(user.getId(), window);
+        } else {
+            PageCursor cursor = PageCursor.decode(after);
+            rows = vaultItemRepository.findSummariesAfter(user.getId(), cursor.timestamp(), cursor.id(), window);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<VaultItemView> items = rows.stream()
+            .limit(limit)
+            .map(this::toView)
+            .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            VaultItemView last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new VaultItemPage(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public VaultItemPage search(SecurityUser user, String query, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (isBlank(query) || query.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "q must be between 1 and " + MAX_QUERY_LENGTH + " characters");
+        }
+        PageCursor cursor = after == null || after.isBlank() ? null : PageCursor.decode(after);
+        return vaultSearchIndex.search(user.getId(), query, cursor, limit);
+    }
+
+    // Autofill lookup: items whose URL shares the registrable domain of the page being visited.
+    @Transactional(readOnly = true)
+    public List<VaultItemView> match(SecurityUser user, String url) {
+        String host = DomainNames.host(url);
+        if (host == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "url must contain a host");
+        }
+        return vaultSearchIndex.match(user.getId(), host);
+    }
+
+    @Transactional(readOnly = true)
+    public VaultChanges listChanges(SecurityUser user, long since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<VaultItemChangeSummary> rows = vaultItemRepository.findChangesSince(user.getId(), since,
+            PageRequest.ofSize(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<VaultItemChange> changes = rows.stream()
+            .limit(limit)
+            .map(row -> row.isDeleted()
+                ? new VaultItemChange(row.getId(), row.getRevision(), true, null)
+                : new VaultItemChange(row.getId(), row.getRevision(), false, toView(row)))
+            .collect(Collectors.toList());
+        long revision = changes.isEmpty() ? since : changes.get(changes.size() - 1).getRevision();
+        return new VaultChanges(changes, revision, hasMore);
+    }
+
     @Transactional
     public VaultItemView createItem(SecurityUser user, VaultItemCreateRequest request) {
         byte[] vaultKey = requireVaultKey(user);
-        CryptoService.EncryptionResult result = encryptSecret(vaultKey, request.getSecret());
+        byte[] sealed = sealSecret(vaultKey, request.getSecret());
         VaultItemEntity entity = new VaultItemEntity();
         entity.setUser(userRepository.getReferenceById(user.getId()));
         entity.setTitle(request.getTitle());
         entity.setUsername(request.getUsername());
         entity.setUrl(request.getUrl());
-        entity.setEncryptedSecretBase64(result.ciphertextBase64());
-        entity.setNonceBase64(result.nonceBase64());
+        entity.setSealedSecret(sealed);
+        entity.setKeyVersion(userRepository.findVaultKeyVersion(user.getId()));
+        entity.setRevision(vaultRevisions.allocate(user.getId(), 1));
         VaultItemEntity saved = vaultItemRepository.save(entity);
-        return new VaultItemView(saved.getId(), saved.getTitle(), saved.getUsername(), saved.getUrl(),
-            saved.getCreatedAt(), saved.getUpdatedAt());
+        return toView(saved);
     }
 
     @Transactional
     public VaultItemView updateItem(SecurityUser user, UUID itemId, VaultItemUpdateRequest request) {
-        VaultItemEntity item = vaultItemRepository.findByIdAndUser_Id(itemId, user.getId())
+        VaultItemEntity item = vaultItemRepository.findByIdAndUser_IdAndDeletedFalse(itemId, user.getId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
-        if (request.getTitle() != null) {
-            item.setTitle(request.getTitle());
-        }
-        if (request.getUsername() != null) {
-            item.setUsername(request.getUsername());
-        }
-        if (request.getUrl() != null) {
-            item.setUrl(request.getUrl());
-        }
-        if (request.getSecret() != null) {
-            byte[] vaultKey = requireVaultKey(user);
-            CryptoService.EncryptionResult result = encryptSecret(vaultKey, request.getSecret());
-            item.setEncryptedSecretBase64(result.ciphertextBase64());
-            item.setNonceBase64(result.nonceBase64());
-        }
+        int keyVersion = request.getSecret() == null
+            ? item.getKeyVersion()
+            : userRepository.findVaultKeyVersion(user.getId());
+        applyFields(user, item, request.getTitle(), request.getUsername(), request.getUrl(), request.getSecret(),
+            keyVersion);
+        item.setRevision(vaultRevisions.allocate(user.getId(), 1));
         VaultItemEntity saved = vaultItemRepository.save(item);
-        return new VaultItemView(saved.getId(), saved.getTitle(), saved.getUsername(), saved.getUrl(),
-            saved.getCreatedAt(), saved.getUpdatedAt());
+        return toView(saved);
     }
 
     @Transactional
     public void deleteItem(SecurityUser user, UUID itemId) {
-        VaultItemEntity item = vaultItemRepository.findByIdAndUser_Id(itemId, user.getId())
+        VaultItemEntity item = vaultItemRepository.findByIdAndUser_IdAndDeletedFalse(itemId, user.getId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
-        vaultItemRepository.delete(item);
+        item.markDeleted(vaultRevisions.allocate(user.getId(), 1));
+        auditLog.record(AuditEventType.ITEM_DELETED, user.getId(), item.getId(), 1, null, null);
     }
 
-    @Transactional(readOnly = true)
+    // Applies every operation in one transaction. Targets are resolved with a single IN query and
+    // writes are flushed together so Hibernate can JDBC-batch them. Missing items or invalid
+    // operations are reported per operation without rolling back the rest of the batch.
+    @Transactional
+    public List<VaultBatchResult> applyBatch(SecurityUser user, List<VaultBatchOperation> operations) {
+        Set<UUID> targetIds = operations.stream()
+            .filter(operation -> operation.getOp() != VaultBatchOperation.Type.CREATE)
+            .map(VaultBatchOperation::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<UUID, VaultItemEntity> items = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            vaultItemRepository.findAllByUser_IdAndIdInAndDeletedFalse(user.getId(), targetIds)
+                .forEach(item -> items.put(item.getId(), item));
+        }
+        int keyVersion = userRepository.findVaultKeyVersion(user.getId());
+        VaultItemEntity[] touched = new VaultItemEntity[operations.size()];
+        VaultBatchResult[] results = new VaultBatchResult[operations.size()];
+        List<VaultItemEntity> created = new ArrayList<>();
+        List<VaultItemEntity> deleted = new ArrayList<>();
+        int mutations = 0;
+        for (int index = 0; index < operations.size(); index++) {
+            VaultBatchOperation operation = operations.get(index);
+            String invalid = validate(operation);
+            if (invalid != null) {
+                results[index] = new VaultBatchResult(index, operation.getOp(), operation.getId(),
+                    HttpStatus.BAD_REQUEST.value(), null, invalid);
+                continue;
+            }
+            if (operation.getOp() == VaultBatchOperation.Type.CREATE) {
+                VaultItemEntity entity = new VaultItemEntity();
+                entity.setUser(userRepository.getReferenceById(user.getId()));
+                applyFields(user, entity, operation.getTitle(), operation.getUsername(), operation.getUrl(),
+                    operation.getSecret(), keyVersion);
+                created.add(entity);
+                touched[index] = entity;
+                mutations++;
+                continue;
+            }
+            VaultItemEntity item = items.get(operation.getId());
+            if (item == null) {
+                results[index] = new VaultBatchResult(index, operation.getOp(), operation.getId(),
+                    HttpStatus.NOT_FOUND.value(), null, "Item not found");
+            } else if (operation.getOp() == VaultBatchOperation.Type.UPDATE) {
+                applyFields(user, item, operation.getTitle(), operation.getUsername(), operation.getUrl(),
+                    operation.getSecret(), keyVersion);
+                touched[index] = item;
+                mutations++;
+            } else {
+                items.remove(item.getId());
+                deleted.add(item);
+                touched[index] = item;
+                mutations++;
+                results[index] = new VaultBatchResult(index, operation.getOp(), item.getId(),
+                    HttpStatus.NO_CONTENT.value(), null, null);
+            }
+        }
+        if (mutations > 0) {
+            long revision = vaultRevisions.allocate(user.getId(), mutations);
+            for (VaultItemEntity entity : touched) {
+                if (entity != null) {
+                    entity.setRevision(revision++);
+                }
+            }
+            deleted.forEach(item -> item.markDeleted(item.getRevision()));
+        }
+        deleted.forEach(item -> auditLog.record(AuditEventType.ITEM_DELETED, user.getId(), item.getId(), 1, null,
+            null));
+        vaultItemRepository.saveAll(created);
+        vaultItemRepository.flush();
+        List<VaultBatchResult> response = new ArrayList<>(operations.size());
+        for (int index = 0; index < operations.size(); index++) {
+            if (results[index] == null) {
+                VaultItemEntity entity = touched[index];
+                VaultBatchOperation.Type type = operations.get(index).getOp();
+                HttpStatus status = type == VaultBatchOperation.Type.CREATE ? HttpStatus.CREATED : HttpStatus.OK;
+                results[index] = new VaultBatchResult(index, type, entity.getId(), status.value(), toView(entity),
+                    null);
+            }
+            response.add(results[index]);
+        }
+        return response;
+    }
+
+    // Reveals charge the rate limiter before their transaction opens: the database backend commits on
+    // its own connection, and taking it while holding this one would pin two pooled connections.
     public RevealResponse revealSecret(SecurityUser user, UUID itemId, String ipAddress) {
         if (!rateLimiterService.tryConsume("reveal:" + user.getId(), REVEAL_WINDOW, REVEAL_MAX)) {
             throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many reveal attempts");
         }
-        VaultItemEntity item = vaultItemRepository.findByIdAndUser_Id(itemId, user.getId())
+        return readOnlyTransaction.execute(status -> openItem(user, itemId, ipAddress));
+    }
+
+    private RevealResponse openItem(SecurityUser user, UUID itemId, String ipAddress) {
+        VaultItemEntity item = vaultItemRepository.findByIdAndUser_IdAndDeletedFalse(itemId, user.getId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Item not found"));
         byte[] vaultKey = requireVaultKey(user);
-        String secret = decryptSecret(vaultKey, item.getEncryptedSecretBase64(), item.getNonceBase64());
-        log.info("Secret revealed user={} item={} ip={}", user.getId(), item.getId(), ipAddress);
+        byte[] itemKey = keyFor(vaultKey, item);
+        String secret;
+        try {
+            secret = openSecret(itemKey, item);
+        } finally {
+            if (itemKey != vaultKey) {
+                Arrays.fill(itemKey, (byte) 0);
+            }
+        }
+        auditLog.record(AuditEventType.SECRET_REVEALED, user.getId(), item.getId(), 1, ipAddress, null);
         return new RevealResponse(secret);
     }
 
-    private byte[] requireVaultKey(SecurityUser user) {
+    // One query, one rate-limit charge weighted by size and one audit event for the whole batch. Ids that
+    // are unknown or not the caller's are listed as not found.
+    public VaultRevealResponse revealSecrets(SecurityUser user, List<UUID> ids, String ipAddress) {
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        int permits = (requested.size() + revealItemsPerPermit - 1) / revealItemsPerPermit;
+        if (!rateLimiterService.tryConsume("reveal:" + user.getId(), REVEAL_WINDOW, REVEAL_MAX, permits)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many reveal attempts");
+        }
+        return readOnlyTransaction.execute(status -> openItems(user, requested, permits, ipAddress));
+    }
+
+    private VaultRevealResponse openItems(SecurityUser user, Set<UUID> requested, int permits, String ipAddress) {
+        byte[] vaultKey = requireVaultKey(user);
+        Map<UUID, VaultItemEntity> items = new HashMap<>();
+        vaultItemRepository.findAllByUser_IdAndIdInAndDeletedFalse(user.getId(), requested)
+            .forEach(item -> items.put(item.getId(), item));
+        List<VaultItemEntity> found = new ArrayList<>(items.size());
+        List<UUID> notFound = new ArrayList<>();
+        for (UUID id : requested) {
+            VaultItemEntity item = items.get(id);
+            if (item == null) {
+                notFound.add(id);
+            } else {
+                found.add(item);
+            }
+        }
+        // Every item has the same owner, so a pending rotation's retired key is unwrapped at most once.
+        UserEntity owner = found.isEmpty() ? null : found.get(0).getUser();
+        int keyVersion = owner == null ? 0 : owner.getVaultKeyVersion();
+        byte[] retiredKey = found.stream().anyMatch(item -> item.getKeyVersion() < keyVersion)
+            ? retiredKey(owner, vaultKey)
+            : null;
+        try {
+            Stream<VaultItemEntity> stream = found.size() >= PARALLEL_REVEAL_THRESHOLD
+                ? found.parallelStream()
+                : found.stream();
+            List<RevealedSecret> revealed = stream
+                .map(item -> new RevealedSecret(item.getId(),
+                    openSecret(item.getKeyVersion() < keyVersion ? retiredKey : vaultKey, item)))
+                .toList();
+            auditLog.record(AuditEventType.SECRETS_REVEALED, user.getId(), null, revealed.size(), ipAddress,
+                "notFound=" + notFound.size() + " permits=" + permits);
+            return new VaultRevealResponse(revealed, notFound);
+        } finally {
+            if (retiredKey != null) {
+                Arrays.fill(retiredKey, (byte) 0);
+            }
+        }
+    }
+
+    private String validate(VaultBatchOperation operation) {
+        switch (operation.getOp()) {
+            case CREATE:
+                if (isBlank(operation.getTitle()) || isBlank(operation.getUsername()) || isBlank(operation.getSecret())) {
+                    return "title, username and secret are required";
+                }
+                return null;
+            case UPDATE:
+                if (operation.getId() == null) {
+                    return "id is required";
+                }
+                if (isEmptyString(operation.getTitle()) || isEmptyString(operation.getUsername())
+                    || isEmptyString(operation.getSecret())) {
+                    return "title, username and secret cannot be empty";
+                }
+                return null;
+            default:
+                return operation.getId() == null ? "id is required" : null;
+        }
+    }
+
+    private void applyFields(SecurityUser user, VaultItemEntity item, String title, String username, String url,
+                             String secret, int keyVersion) {
+        if (title != null) {
+            item.setTitle(title);
+        }
+        if (username != null) {
+            item.setUsername(username);
+        }
+        if (url != null) {
+            item.setUrl(url);
+        }
+        if (secret != null) {
+            item.setSealedSecret(sealSecret(requireVaultKey(user), secret));
+            item.setKeyVersion(keyVersion);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static boolean isEmptyString(String value) {
+        return value != null && value.isEmpty();
+    }
+
+    private VaultItemView toView(VaultItemEntity item) {
+        return new VaultItemView(item.getId(), item.getTitle(), item.getUsername(), item.getUrl(),
+            item.getCreatedAt(), item.getUpdatedAt());
+    }
+
+    private VaultItemView toView(VaultItemSummary summary) {
+        return new VaultItemView(summary.getId(), summary.getTitle(), summary.getUsername(), summary.getUrl(),
+            summary.getCreatedAt(), summary.getUpdatedAt());
+    }
+
+    static byte[] requireVaultKey(SecurityUser user) {
         byte[] key = user.getVaultKey();
         if (key == null) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Vault key unavailable");
@@ -111,19 +416,45 @@ public class VaultService {
         return key;
     }
 
-    private CryptoService.EncryptionResult encryptSecret(byte[] vaultKey, String secret) {
+    private byte[] sealSecret(byte[] vaultKey, String secret) {
         try {
-            return cryptoService.encrypt(vaultKey, secret);
+            return cryptoService.sealString(vaultKey, secret);
         } catch (IllegalStateException ex) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Vault key invalid", ex);
         }
     }
 
-    private String decryptSecret(byte[] vaultKey, String ciphertextBase64, String nonceBase64) {
+    // Until the key rotation reaches it, an item sealed before the last password change opens with the
+    // retired key, which the session key unwraps.
+    private byte[] keyFor(byte[] vaultKey, VaultItemEntity item) {
+        UserEntity owner = item.getUser();
+        if (item.getKeyVersion() >= owner.getVaultKeyVersion()) {
+            return vaultKey;
+        }
+        return retiredKey(owner, vaultKey);
+    }
+
+    private byte[] retiredKey(UserEntity owner, byte[] vaultKey) {
         try {
-            return cryptoService.decrypt(vaultKey, ciphertextBase64, nonceBase64);
+            return vaultKeyRotation.unwrapRetiredKey(owner, vaultKey);
         } catch (IllegalStateException ex) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Vault key invalid", ex);
         }
     }
+
+    private String openSecret(byte[] vaultKey, VaultItemEntity item) {
+        try {
+            return cryptoService.openString(vaultKey, sealedSecretOf(item));
+        } catch (IllegalStateException | IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Vault key invalid", ex);
+        }
+    }
+
+    // Rows not yet converted by VaultStorageMigration still hold the legacy Base64 pair.
+    static byte[] sealedSecretOf(VaultItemEntity item) {
+        if (item.getSealedSecret() != null) {
+            return item.getSealedSecret();
+        }
+        return CryptoService.toSealed(item.getEncryptedSecretBase64(), item.getNonceBase64());
+    }
 }
@@ -0,0 +1,79 @@
+package com.example.minilastpass.vault;
+
+import com.example.minilastpass.config.VaultProperties;
+import com.example.minilastpass.crypto.CryptoService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Converts rows still stored as a Base64 ciphertext/nonce pair into the binary sealed column.
+// Repacking needs no vault key, so it runs in the background a batch at a time.
+@Component
+class VaultStorageMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(VaultStorageMigration.class);
+
+    // Keyset by id, so rows that cannot be converted are passed over rather than read again forever.
+    private static final String SELECT_FIRST = "select id, encrypted_secret_base64, nonce_base64 from vault_items "
+        + "where sealed_secret is null and deleted = false order by id fetch first ? rows only";
+    private static final String SELECT_NEXT = "select id, encrypted_secret_base64, nonce_base64 from vault_items "
+        + "where sealed_secret is null and deleted = false and id > ? order by id fetch first ? rows only";
+    // Bypasses the entity so updated_at and the sync revision stay untouched; the plaintext is unchanged.
+    private static final String UPDATE_SEALED = "update vault_items set sealed_secret = ?, "
+        + "encrypted_secret_base64 = '', nonce_base64 = '' where id = ? and sealed_secret is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VaultProperties properties;
+
+    VaultStorageMigration(JdbcTemplate jdbcTemplate, VaultProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${application.vault.storage-migration-interval:PT1M}",
+        fixedDelayString = "${application.vault.storage-migration-interval:PT1M}")
+    void migrateInBackground() {
+        int total = 0;
+        UUID after = null;
+        Batch batch;
+        do {
+            batch = migrateBatch(after);
+            total += batch.converted();
+            after = batch.lastId();
+        } while (batch.read() == properties.getStorageMigrationBatchSize());
+        if (total > 0) {
+            log.info("Converted {} vault items to sealed binary storage", total);
+        }
+    }
+
+    // Reads the next batch of legacy rows with an id above after (from the start when null).
+    Batch migrateBatch(UUID after) {
+        int batchSize = properties.getStorageMigrationBatchSize();
+        List<Object[]> updates = new ArrayList<>();
+        UUID[] last = new UUID[1];
+        int[] read = new int[1];
+        Object[] args = after == null ? new Object[] {batchSize} : new Object[] {after, batchSize};
+        jdbcTemplate.query(after == null ? SELECT_FIRST : SELECT_NEXT, rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            last[0] = id;
+            read[0]++;
+            try {
+                updates.add(new Object[] {CryptoService.toSealed(rs.getString(2), rs.getString(3)), id});
+            } catch (IllegalArgumentException ex) {
+                log.warn("Skipping vault item {} with malformed legacy ciphertext", id);
+            }
+        }, args);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SEALED, updates);
+        }
+        return new Batch(read[0], updates.size(), last[0]);
+    }
+
+    record Batch(int read, int converted, UUID lastId) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.minilastpass.vault;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.Instant;
+import java.util.UUID;
+
+// One NDJSON line of an export or import. Exports carry the sealed secret (nonce || ciphertext || tag,
+// Base64); imports may carry a sealed secret or the older ciphertext/nonce pair produced under the
+// same vault key, or a plaintext secret to encrypt.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VaultTransferRecord {
+
+    private UUID id;
+    private String title;
+    private String username;
+    private String url;
+    private String ciphertext;
+    private String nonce;
+    private String sealed;
+    private String secret;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getCiphertext() {
+        return ciphertext;
+    }
+
+    public void setCiphertext(String ciphertext) {
+        this.ciphertext = ciphertext;
+    }
+
+    public String getNonce() {
+        return nonce;
+    }
+
+    public void setNonce(String nonce) {
+        this.nonce = nonce;
+    }
+
+    public String getSealed() {
+        return sealed;
+    }
+
+    public void setSealed(String sealed) {
+        this.sealed = sealed;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.minilastpass.vault;
+
+import com.example.minilastpass.config.VaultProperties;
+import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.user.UserEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Service
+public class VaultTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(VaultTransferService.class);
+
+    private final VaultItemRepository vaultItemRepository;
+    private final CryptoService cryptoService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final VaultProperties properties;
+    private final VaultRevisions vaultRevisions;
+    private final VaultKeyRotation vaultKeyRotation;
+
+    public VaultTransferService(VaultItemRepository vaultItemRepository, CryptoService cryptoService,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper, VaultProperties properties,
+                                VaultRevisions vaultRevisions, VaultKeyRotation vaultKeyRotation) {
+        this.vaultItemRepository = vaultItemRepository;
+        this.cryptoService = cryptoService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.vaultRevisions = vaultRevisions;
+        this.vaultKeyRotation = vaultKeyRotation;
+    }
+
+    // Streams rows straight from a JDBC cursor; each entity is detached once written so the
+    // persistence context, and therefore heap usage, stays constant regardless of vault size.
+    // Items a key rotation has not reached yet are resealed so the whole export opens with one key.
+    @Transactional(readOnly = true)
+    public long exportItems(SecurityUser user, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(VaultTransferRecord.class);
+        UserEntity owner = entityManager.find(UserEntity.class, user.getId());
+        byte[] retiredKey = null;
+        long exported = 0;
+        try (Stream<VaultItemEntity> items = vaultItemRepository.streamAllByUserId(user.getId())) {
+            Iterator<VaultItemEntity> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                VaultItemEntity item = iterator.next();
+                byte[] sealed = VaultService.sealedSecretOf(item);
+                if (item.getKeyVersion() < owner.getVaultKeyVersion()) {
+                    byte[] vaultKey = VaultService.requireVaultKey(user);
+                    if (retiredKey == null) {
+                        retiredKey = vaultKeyRotation.unwrapRetiredKey(owner, vaultKey);
+                    }
+                    byte[] plaintext = cryptoService.open(retiredKey, sealed);
+                    sealed = cryptoService.seal(vaultKey, plaintext);
+                    Arrays.fill(plaintext, (byte) 0);
+                }
+                out.write(writer.writeValueAsBytes(toRecord(item, sealed)));
+                out.write('\n');
+                entityManager.detach(item);
+                exported++;
+            }
+        } finally {
+            if (retiredKey != null) {
+                Arrays.fill(retiredKey, (byte) 0);
+            }
+        }
+        out.flush();
+        return exported;
+    }
+
+    // Each batch is committed in its own transaction and acknowledged with a progress line, so a
+    // failed import can be resumed by re-sending the lines after the last acknowledged count.
+    public VaultImportProgress importItems(SecurityUser user, InputStream in, OutputStream progressOut)
+        throws IOException {
+        byte[] vaultKey = VaultService.requireVaultKey(user);
+        int batchSize = properties.getImportBatchSize();
+        List<VaultItemEntity> batch = new ArrayList<>(batchSize);
+        long imported = 0;
+        long line = 0;
+        VaultImportProgress result;
+        try (MappingIterator<VaultTransferRecord> records = objectMapper.readerFor(VaultTransferRecord.class)
+            .readValues(in)) {
+            while (records.hasNextValue()) {
+                line++;
+                batch.add(toEntity(vaultKey, records.nextValue()));
+                if (batch.size() >= batchSize) {
+                    imported += persistBatch(user.getId(), batch);
+                    writeProgress(progressOut, new VaultImportProgress(imported, false, null, null));
+                }
+            }
+            imported += persistBatch(user.getId(), batch);
+            result = new VaultImportProgress(imported, true, null, null);
+        } catch (JsonProcessingException ex) {
+            result = new VaultImportProgress(imported, false, line, "Malformed record");
+        } catch (InvalidRecordException ex) {
+            result = new VaultImportProgress(imported, false, line, ex.getMessage());
+        }
+        writeProgress(progressOut, result);
+        log.info("Vault import user={} imported={} completed={}", user.getId(), result.getImported(),
+            result.isCompleted());
+        return result;
+    }
+
+    private int persistBatch(UUID userId, List<VaultItemEntity> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int size = batch.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            UserEntity owner = entityManager.find(UserEntity.class, userId);
+            long revision = vaultRevisions.allocate(userId, size);
+            for (VaultItemEntity entity : batch) {
+                entity.setUser(owner);
+                entity.setKeyVersion(owner.getVaultKeyVersion());
+                entity.setRevision(revision++);
+                entityManager.persist(entity);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        batch.clear();
+        return size;
+    }
+
+    private VaultItemEntity toEntity(byte[] vaultKey, VaultTransferRecord record) {
+        if (isBlank(record.getTitle()) || isBlank(record.getUsername())) {
+            throw new InvalidRecordException("title and username are required");
+        }
+        VaultItemEntity entity = new VaultItemEntity();
+        entity.setTitle(record.getTitle());
+        entity.setUsername(record.getUsername());
+        entity.setUrl(record.getUrl());
+        entity.setCreatedAt(record.getCreatedAt());
+        if (!isBlank(record.getSecret())) {
+            entity.setSealedSecret(cryptoService.sealString(vaultKey, record.getSecret()));
+            return entity;
+        }
+        byte[] sealed;
+        try {
+            if (!isBlank(record.getSealed())) {
+                sealed = Base64.getDecoder().decode(record.getSealed());
+            } else if (!isBlank(record.getCiphertext()) && !isBlank(record.getNonce())) {
+                sealed = CryptoService.toSealed(record.getCiphertext(), record.getNonce());
+            } else {
+                throw new InvalidRecordException("either secret, sealed, or ciphertext and nonce are required");
+            }
+            // Only accept ciphertext this vault key can actually open.
+            Arrays.fill(cryptoService.open(vaultKey, sealed), (byte) 0);
+        } catch (InvalidRecordException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw new InvalidRecordException("ciphertext was not produced with this vault key");
+        }
+        entity.setSealedSecret(sealed);
+        return entity;
+    }
+
+    private VaultTransferRecord toRecord(VaultItemEntity item, byte[] sealed) {
+        VaultTransferRecord record = new VaultTransferRecord();
+        record.setId(item.getId());
+        record.setTitle(item.getTitle());
+        record.setUsername(item.getUsername());
+        record.setUrl(item.getUrl());
+        record.setSealed(Base64.getEncoder().encodeToString(sealed));
+        record.setCreatedAt(item.getCreatedAt());
+        record.setUpdatedAt(item.getUpdatedAt());
+        return record;
+    }
+
+    private void writeProgress(OutputStream out, VaultImportProgress progress) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(progress));
+        out.write('\n');
+        out.flush();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static final class InvalidRecordException extends RuntimeException {
+
+        InvalidRecordException(String message) {
+            super(message);
+        }
+    }
+}
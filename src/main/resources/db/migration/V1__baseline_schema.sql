@@ -0,0 +1,72 @@
+-- Schema as of the switch from hibernate.ddl-auto to versioned migrations. Every statement is
+-- idempotent so H2 files that ddl-auto built before then are adopted as they are (see
+-- spring.flyway.baseline-version in application.yml). Types are the common subset of PostgreSQL
+-- and H2 in PostgreSQL mode.
+
+create table if not exists users (
+    id uuid not null,
+    email varchar(255) not null,
+    password_hash varchar(255) not null,
+    kdf_salt_base64 varchar(255) not null,
+    kdf_version integer default 1 not null,
+    vault_revision bigint default 0 not null,
+    wrapped_data_key bytea,
+    vault_key_version integer default 1 not null,
+    retired_vault_key bytea,
+    created_at timestamp(6) with time zone not null,
+    constraint pk_users primary key (id),
+    -- Backs the login lookup; emails are stored lower-cased so the plain equality can use it.
+    constraint uk_users_email unique (email)
+);
+
+create table if not exists vault_items (
+    id uuid not null,
+    user_id uuid not null,
+    title varchar(255) not null,
+    username varchar(255) not null,
+    url varchar(255),
+    encrypted_secret_base64 varchar(2048) not null,
+    nonce_base64 varchar(256) not null,
+    sealed_secret bytea,
+    key_version integer default 1 not null,
+    revision bigint default 0 not null,
+    deleted boolean default false not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    constraint pk_vault_items primary key (id),
+    constraint fk_vault_items_user foreign key (user_id) references users (id)
+);
+
+-- Both lead with user_id, so they also serve every per-user lookup and the foreign key; a separate
+-- index on user_id alone would only add write cost.
+create index if not exists idx_vault_items_user_created_id on vault_items (user_id, created_at, id);
+create index if not exists idx_vault_items_user_revision on vault_items (user_id, revision);
+
+create table if not exists rate_limit_buckets (
+    bucket_key varchar(320) not null,
+    tat_millis bigint not null,
+    constraint pk_rate_limit_buckets primary key (bucket_key)
+);
+
+create table if not exists session_keys (
+    token_id varchar(64) not null,
+    wrapped_key bytea not null,
+    expires_at timestamp(6) with time zone not null,
+    constraint pk_session_keys primary key (token_id)
+);
+
+create index if not exists idx_session_keys_expires_at on session_keys (expires_at);
+
+create table if not exists audit_events (
+    id uuid not null,
+    occurred_at timestamp(6) with time zone not null,
+    user_id uuid,
+    event_type varchar(32) not null,
+    item_id uuid,
+    item_count integer not null,
+    ip_address varchar(45),
+    detail varchar(320),
+    constraint pk_audit_events primary key (id)
+);
+
+create index if not exists idx_audit_events_user_occurred_id on audit_events (user_id, occurred_at, id);
@@ -0,0 +1,3 @@
+-- Cutoff before which a user's tokens are refused. Kept on the user row rather than per node so that a
+-- revocation made by one replica holds on every other one.
+alter table users add column if not exists sessions_revoked_before timestamp(6) with time zone;
@@ -0,0 +1,3 @@
+-- Every node polls for recent revocations; the index keeps that a range scan over the few users with
+-- a recent cutoff rather than a pass over the whole table.
+create index if not exists idx_users_sessions_revoked_before on users (sessions_revoked_before);
@@ -0,0 +1,99 @@
+package com.example.minilastpass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.minilastpass.audit.AuditEventType;
+import com.example.minilastpass.audit.AuditEventView;
+import com.example.minilastpass.audit.AuditService;
+import com.example.minilastpass.auth.AuthService;
+import com.example.minilastpass.auth.LoginRequest;
+import com.example.minilastpass.auth.SignupRequest;
+import com.example.minilastpass.security.DerivedKeyStore;
+import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.vault.VaultItemCreateRequest;
+import com.example.minilastpass.vault.VaultService;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// The prod profile against H2 in PostgreSQL mode: the schema comes only from the Flyway migrations,
+// Hibernate runs with the PostgreSQL dialect, and validate proves the entities match what was migrated.
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:prod-profile;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    // Against PostgreSQL the dialect is detected; H2 would be detected as H2 here.
+    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+    "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("prod")
+class ProductionProfileTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private VaultService vaultService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private DerivedKeyStore derivedKeyStore;
+
+    @Test
+    void migrationsBuildTheSchemaAndThePoolIsSizedExplicitly() {
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("3");
+        assertThat(flyway.info().pending()).isEmpty();
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(20);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(3_000);
+    }
+
+    @Test
+    void vaultRoundTripsUnderThePostgresDialect() throws InterruptedException {
+        String email = "prod-" + UUID.randomUUID() + "@example.com";
+        SignupRequest signup = new SignupRequest();
+        signup.setEmail(email);
+        signup.setPassword("production-password");
+        UUID userId = authService.signup(signup).getId();
+        LoginRequest login = new LoginRequest();
+        login.setEmail(email.toUpperCase());
+        login.setPassword("production-password");
+        SecurityUser user = new SecurityUser(userId, email, null,
+            derivedKeyStore.get(authService.login(login).tokenId()));
+
+        VaultItemCreateRequest item = new VaultItemCreateRequest();
+        item.setTitle("Database");
+        item.setUsername("postgres");
+        item.setSecret("s3cret");
+        UUID itemId = vaultService.createItem(user, item).getId();
+
+        assertThat(vaultService.listPage(user, null, 10).getItems()).hasSize(1);
+        assertThat(vaultService.revealSecret(user, itemId, "127.0.0.1").getSecret()).isEqualTo("s3cret");
+        assertThat(vaultService.listChanges(user, 0, 10).getChanges()).hasSize(1);
+
+        // Written by the audit writer's next pass.
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<AuditEventView> events = auditService.listPage(user, null, 10).getItems();
+        while (events.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = auditService.listPage(user, null, 10).getItems();
+        }
+        assertThat(events).extracting(AuditEventView::getType).containsExactly(AuditEventType.SECRET_REVEALED,
+            AuditEventType.LOGIN_SUCCEEDED, AuditEventType.SIGNUP);
+    }
+}
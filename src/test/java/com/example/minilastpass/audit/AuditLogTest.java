@@ -0,0 +1,151 @@
+package com.example.minilastpass.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.minilastpass.auth.AuthService;
+import com.example.minilastpass.auth.LoginRequest;
+import com.example.minilastpass.auth.SignupRequest;
+import com.example.minilastpass.security.DerivedKeyStore;
+import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.vault.VaultItemCreateRequest;
+import com.example.minilastpass.vault.VaultService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.web.server.ResponseStatusException;
+
+// Not transactional: events are written by the audit writer and must be committed to be read back, so the
+// test gets its own in-memory database instead of committing into the shared file one.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:audit-log-test;DB_CLOSE_DELAY=-1")
+class AuditLogTest {
+
+    private static final String PASSWORD = "audited-password";
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private VaultService vaultService;
+
+    @Autowired
+    private DerivedKeyStore derivedKeyStore;
+
+    @Test
+    void ringRejectsWhenFullAndDrainsInPublishOrder() {
+        AuditRingBuffer buffer = new AuditRingBuffer(3);
+        assertThat(buffer.capacity()).isEqualTo(4);
+        List<AuditEvent> published = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            AuditEvent event = event(i);
+            published.add(event);
+            assertThat(buffer.offer(event)).isTrue();
+        }
+        assertThat(buffer.offer(event(4))).isFalse();
+
+        List<AuditEvent> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(buffer.offer(event(5))).isTrue();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(2);
+        assertThat(drained.subList(0, 4)).isEqualTo(published);
+        assertThat(drained.get(4).itemCount()).isEqualTo(5);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void concurrentProducersLoseNothingTheRingAccepted() throws InterruptedException {
+        AuditRingBuffer buffer = new AuditRingBuffer(256);
+        int producers = 4;
+        int perProducer = 20_000;
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(event(producer * perProducer + i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        List<AuditEvent> drained = new ArrayList<>();
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        while (threads.stream().anyMatch(Thread::isAlive) || buffer.size() > 0) {
+            List<AuditEvent> chunk = new ArrayList<>();
+            buffer.drainTo(chunk, 64);
+            for (AuditEvent event : chunk) {
+                int producer = event.itemCount() / perProducer;
+                // Each producer's events come out in the order it published them.
+                assertThat(event.itemCount()).isGreaterThan(lastSeen[producer]);
+                lastSeen[producer] = event.itemCount();
+            }
+            drained.addAll(chunk);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        buffer.drainTo(drained, Integer.MAX_VALUE);
+        assertThat(drained).hasSize(accepted.get());
+    }
+
+    @Test
+    void authAndRevealEventsArePagedNewestFirst() {
+        String email = "audit-" + UUID.randomUUID() + "@example.com";
+        SignupRequest signup = new SignupRequest();
+        signup.setEmail(email);
+        signup.setPassword(PASSWORD);
+        UUID userId = authService.signup(signup, "10.0.0.1").getId();
+        assertThatThrownBy(() -> login(email, "wrong-password-here"))
+            .isInstanceOf(ResponseStatusException.class);
+        SecurityUser user = new SecurityUser(userId, email, null,
+            derivedKeyStore.get(login(email, PASSWORD).tokenId()));
+        VaultItemCreateRequest item = new VaultItemCreateRequest();
+        item.setTitle("Audited");
+        item.setUsername("someone");
+        item.setSecret("hunter2");
+        UUID itemId = vaultService.createItem(user, item).getId();
+        vaultService.revealSecret(user, itemId, "10.0.0.2");
+        auditLog.flush();
+
+        AuditEventPage first = auditService.listPage(user, null, 2);
+        assertThat(first.getItems()).extracting(AuditEventView::getType)
+            .containsExactly(AuditEventType.SECRET_REVEALED, AuditEventType.LOGIN_SUCCEEDED);
+        assertThat(first.getItems().get(0).getItemId()).isEqualTo(itemId);
+        assertThat(first.getItems().get(0).getIpAddress()).isEqualTo("10.0.0.2");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        AuditEventPage second = auditService.listPage(user, first.getNextCursor(), 2);
+        assertThat(second.getItems()).extracting(AuditEventView::getType)
+            .containsExactly(AuditEventType.LOGIN_FAILED, AuditEventType.SIGNUP);
+        assertThat(second.getItems().get(1).getIpAddress()).isEqualTo("10.0.0.1");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    private AuthService.LoginResult login(String email, String password) {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(email);
+        login.setPassword(password);
+        return authService.login(login);
+    }
+
+    private static AuditEvent event(int sequence) {
+        return new AuditEvent(UUID.randomUUID(), Instant.now(), null, AuditEventType.SIGNUP, null, sequence, null,
+            null);
+    }
+}
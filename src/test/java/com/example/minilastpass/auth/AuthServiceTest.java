@@ -2,8 +2,15 @@ package com.example.minilastpass.auth;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.security.DerivedKeyStore;
 import com.example.minilastpass.security.JwtService;
+import com.example.minilastpass.user.UserEntity;
 import com.example.minilastpass.user.UserRepository;
+import de.mkammerer.argon2.Argon2Factory;
+import de.mkammerer.argon2.Argon2Factory.Argon2Types;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -22,6 +29,12 @@ class AuthServiceTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private CryptoService cryptoService;
+
+    @Autowired
+    private DerivedKeyStore derivedKeyStore;
+
     @Test
     void signupAndLoginFlow() {
         SignupRequest signup = new SignupRequest();
@@ -29,7 +42,7 @@ class AuthServiceTest {
         signup.setPassword("supersecurepass");
         AuthResponse response = authService.signup(signup);
         assertThat(response.getId()).isNotNull();
-        assertThat(userRepository.findByEmailIgnoreCase("test@example.com")).isPresent();
+        assertThat(userRepository.findByEmail("test@example.com")).isPresent();
 
         LoginRequest login = new LoginRequest();
         login.setEmail("test@example.com");
@@ -38,4 +51,29 @@ class AuthServiceTest {
         assertThat(jwtService.isTokenValid(result.token())).isTrue();
         assertThat(result.profile().getEmail()).isEqualTo("test@example.com");
     }
+
+    @Test
+    void legacyAccountMigratesToSinglePassOnLogin() {
+        String password = "legacypassword";
+        byte[] salt = "legacysalt123456".getBytes(StandardCharsets.UTF_8);
+        UserEntity legacy = new UserEntity();
+        legacy.setEmail("legacy@example.com");
+        legacy.setPasswordHash(Argon2Factory.create(Argon2Types.ARGON2id)
+            .hash(4, CryptoService.KDF_MEMORY_KB, CryptoService.KDF_PARALLELISM, password.toCharArray()));
+        legacy.setKdfSaltBase64(Base64.getEncoder().encodeToString(salt));
+        userRepository.saveAndFlush(legacy);
+        byte[] expectedKey = cryptoService.deriveKey(password.toCharArray(), salt);
+
+        LoginRequest login = new LoginRequest();
+        login.setEmail("legacy@example.com");
+        login.setPassword(password);
+        AuthService.LoginResult first = authService.login(login);
+        UserEntity migrated = userRepository.findByEmail("legacy@example.com").orElseThrow();
+        assertThat(migrated.getKdfVersion()).isEqualTo(UserEntity.KDF_VERSION_SINGLE_PASS);
+        byte[] dataKey = cryptoService.unwrapDataKey(expectedKey, migrated.getWrappedDataKey());
+        assertThat(derivedKeyStore.get(first.tokenId())).isEqualTo(dataKey);
+
+        AuthService.LoginResult second = authService.login(login);
+        assertThat(derivedKeyStore.get(second.tokenId())).isEqualTo(dataKey);
+    }
 }
@@ -18,4 +18,13 @@ class CryptoServiceTest {
         String decrypted = cryptoService.decrypt(key, result.ciphertextBase64(), result.nonceBase64());
         assertThat(decrypted).isEqualTo("secret-value");
     }
+
+    @Test
+    void sealedFormMatchesLegacyCiphertextAndNonce() {
+        byte[] key = new byte[32];
+        CryptoService.EncryptionResult legacy = cryptoService.encrypt(key, "secret-value");
+        byte[] sealed = CryptoService.toSealed(legacy.ciphertextBase64(), legacy.nonceBase64());
+        assertThat(cryptoService.openString(key, sealed)).isEqualTo("secret-value");
+        assertThat(cryptoService.openString(key, cryptoService.sealString(key, "other"))).isEqualTo("other");
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.minilastpass.crypto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.minilastpass.config.KdfProperties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+class KdfExecutorTest {
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        KdfProperties properties = new KdfProperties();
+        properties.setMaxConcurrency(1);
+        properties.setQueueCapacity(0);
+        KdfExecutor executor = new KdfExecutor(properties);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                return "done";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> executor.execute(() -> "rejected"))
+                .isInstanceOfSatisfying(KdfSaturatedException.class, ex -> {
+                    assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(ex.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+                });
+            assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("done");
+            assertThat(executor.execute(() -> "accepted")).isEqualTo("accepted");
+        } finally {
+            release.countDown();
+            executor.destroy();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.minilastpass.rate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class DatabaseRateLimiterBackendTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final Duration LEASE_TTL = Duration.ofSeconds(2);
+
+    @Autowired
+    private RateLimitBucketRepository repository;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+
+    @Test
+    void limitHoldsAcrossNodesSharingTheTable() {
+        DatabaseRateLimiterBackend nodeA = new DatabaseRateLimiterBackend(repository, 100, 2, LEASE_TTL, clock::get);
+        DatabaseRateLimiterBackend nodeB = new DatabaseRateLimiterBackend(repository, 100, 2, LEASE_TTL, clock::get);
+        String key = "login:" + UUID.randomUUID();
+
+        assertThat(nodeA.tryConsume(key, WINDOW, 4, 1)).isTrue();
+        assertThat(nodeA.tryConsume(key, WINDOW, 4, 1)).isTrue();
+        assertThat(nodeB.tryConsume(key, WINDOW, 4, 1)).isTrue();
+        assertThat(nodeB.tryConsume(key, WINDOW, 4, 1)).isTrue();
+        assertThat(nodeA.tryConsume(key, WINDOW, 4, 1)).isFalse();
+        assertThat(nodeB.tryConsume(key, WINDOW, 4, 1)).isFalse();
+    }
+
+    @Test
+    void expiredLeaseRefundsUnusedPermits() {
+        DatabaseRateLimiterBackend node = new DatabaseRateLimiterBackend(repository, 100, 2, LEASE_TTL, clock::get);
+        String key = "reveal:" + UUID.randomUUID();
+        long start = clock.get();
+
+        assertThat(node.tryConsume(key, WINDOW, 4, 1)).isTrue();
+        assertThat(repository.findTatMillis(key)).contains(start + 30_000);
+        assertThat(node.size()).isEqualTo(1);
+
+        clock.addAndGet(LEASE_TTL.toMillis() + 1);
+        node.sweep();
+        assertThat(node.size()).isZero();
+        assertThat(repository.findTatMillis(key)).contains(start + 15_000);
+    }
+}
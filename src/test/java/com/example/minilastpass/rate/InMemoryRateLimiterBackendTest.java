@@ -0,0 +1,57 @@
+package com.example.minilastpass.rate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRateLimiterBackendTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void allowsBurstThenRefillsOneAttemptPerInterval() {
+        InMemoryRateLimiterBackend limiter = new InMemoryRateLimiterBackend(100, clock::get);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryConsume("login:a", WINDOW, 3, 1)).isTrue();
+        }
+        assertThat(limiter.tryConsume("login:a", WINDOW, 3, 1)).isFalse();
+        assertThat(limiter.tryConsume("login:b", WINDOW, 3, 1)).isTrue();
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertThat(limiter.tryConsume("login:a", WINDOW, 3, 1)).isTrue();
+        assertThat(limiter.tryConsume("login:a", WINDOW, 3, 1)).isFalse();
+    }
+
+    @Test
+    void fullMapEvictsLeastThrottledKeysAndKeepsAdmittingNewOnes() {
+        InMemoryRateLimiterBackend limiter = new InMemoryRateLimiterBackend(10, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryConsume("login:victim", WINDOW, 3, 1);
+        }
+        assertThat(limiter.tryConsume("login:victim", WINDOW, 3, 1)).isFalse();
+
+        for (int i = 0; i < 1_000; i++) {
+            clock.addAndGet(1_000);
+            assertThat(limiter.tryConsume("login:flood-" + i, WINDOW, 3, 1)).isTrue();
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+        assertThat(limiter.tryConsume("login:victim", WINDOW, 3, 1)).isFalse();
+    }
+
+    @Test
+    void sweepDropsIdleKeysAndCapBoundsMemory() {
+        InMemoryRateLimiterBackend limiter = new InMemoryRateLimiterBackend(10, clock::get);
+        for (int i = 0; i < 50; i++) {
+            limiter.tryConsume("login:" + i, WINDOW, 5, 1);
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+
+        clock.addAndGet(WINDOW.toNanos());
+        limiter.sweep();
+        assertThat(limiter.size()).isZero();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.minilastpass.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class DerivedKeyStoreTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void evictsLeastRecentlyUsedKeyWhenFull() {
+        DerivedKeyStore store = new DerivedKeyStore(2, Duration.ofHours(1), clock::get);
+        store.put("a", new byte[] {1});
+        store.put("b", new byte[] {2});
+        assertThat(store.get("a")).containsExactly(1);
+
+        store.put("c", new byte[] {3});
+        assertThat(store.get("b")).isNull();
+        assertThat(store.get("a")).containsExactly(1);
+        assertThat(store.get("c")).containsExactly(3);
+        assertThat(store.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void sweepRemovesExpiredKeysWithoutBeingTouched() {
+        DerivedKeyStore store = new DerivedKeyStore(4, Duration.ofMinutes(5), clock::get);
+        store.put("old", new byte[] {7, 7});
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+        store.put("new", new byte[] {8});
+        clock.addAndGet(Duration.ofMinutes(3).toNanos());
+
+        store.sweep();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(store.getExpirationCount()).isEqualTo(1);
+        assertThat(store.get("new")).containsExactly(8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.minilastpass.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.minilastpass.config.JwtProperties;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService(properties(16));
+
+    @Test
+    void parseReturnsVerifiedClaims() {
+        UUID userId = UUID.randomUUID();
+        String token = jwtService.generateToken(userId, "jwt@example.com", "token-1");
+
+        VerifiedToken verified = jwtService.parse(token);
+        assertThat(verified.userId()).isEqualTo(userId);
+        assertThat(verified.email()).isEqualTo("jwt@example.com");
+        assertThat(verified.tokenId()).isEqualTo("token-1");
+        assertThat(verified.expiresAt()).isAfter(verified.issuedAt());
+        assertThat(jwtService.parse(token)).isSameAs(verified);
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenOriginalIsCached() {
+        String token = jwtService.generateToken(UUID.randomUUID(), "jwt@example.com", "token-2");
+        jwtService.parse(token);
+        String tampered = token.substring(0, token.length() - 2)
+            + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtService.parse(tampered)).isInstanceOf(RuntimeException.class);
+        assertThat(jwtService.isTokenValid(tampered)).isFalse();
+    }
+
+    @Test
+    void cacheCanBeDisabled() {
+        JwtService uncached = new JwtService(properties(0));
+        String token = uncached.generateToken(UUID.randomUUID(), "jwt@example.com", "token-3");
+        assertThat(uncached.parse(token)).isNotSameAs(uncached.parse(token)).isEqualTo(uncached.parse(token));
+    }
+
+    private static JwtProperties properties(int cacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("test-secret-that-is-at-least-32-bytes-long");
+        properties.setExpirationMinutes(5);
+        properties.setVerifiedTokenCacheSize(cacheSize);
+        return properties;
+    }
+}
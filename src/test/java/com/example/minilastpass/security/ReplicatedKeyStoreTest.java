@@ -0,0 +1,40 @@
+package com.example.minilastpass.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.minilastpass.crypto.CryptoService;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class ReplicatedKeyStoreTest {
+
+    private static final Duration LIFETIME = Duration.ofHours(1);
+
+    @Autowired
+    private SessionKeyRepository repository;
+
+    @Autowired
+    private CryptoService cryptoService;
+
+    @Test
+    void keyStoredOnOneNodeIsServedByAnother() {
+        ReplicatedKeyStore shared = new ReplicatedKeyStore(repository, cryptoService, new byte[32]);
+        DerivedKeyStore nodeA = new DerivedKeyStore(8, LIFETIME, Duration.ofSeconds(30), shared, System::nanoTime);
+        DerivedKeyStore nodeB = new DerivedKeyStore(8, LIFETIME, Duration.ofSeconds(30), shared, System::nanoTime);
+        String tokenId = UUID.randomUUID().toString();
+        byte[] vaultKey = new byte[] {1, 2, 3, 4};
+
+        nodeA.put(tokenId, vaultKey);
+        // nonce (12) + wrapped key + GCM tag (16)
+        assertThat(repository.findById(tokenId).orElseThrow().getWrappedKey()).hasSize(12 + vaultKey.length + 16);
+        assertThat(nodeB.get(tokenId)).containsExactly(vaultKey);
+
+        nodeA.remove(tokenId);
+        DerivedKeyStore nodeC = new DerivedKeyStore(8, LIFETIME, Duration.ofSeconds(30), shared, System::nanoTime);
+        assertThat(nodeC.get(tokenId)).isNull();
+    }
+}
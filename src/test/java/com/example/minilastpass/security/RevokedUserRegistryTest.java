@@ -0,0 +1,79 @@
+package com.example.minilastpass.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.minilastpass.config.JwtProperties;
+import com.example.minilastpass.user.UserEntity;
+import com.example.minilastpass.user.UserRepository;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+// Not @Transactional: the cutoff has to be committed for the other node to see it.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:revoked-user-test;DB_CLOSE_DELAY=-1")
+class RevokedUserRegistryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Test
+    void cutoffRecordedOnOneNodeIsEnforcedByAnotherAfterRefresh() throws InterruptedException {
+        RevokedUserRegistry registryA = new RevokedUserRegistry(userRepository, jwtProperties);
+        RevokedUserRegistry registryB = new RevokedUserRegistry(userRepository, jwtProperties);
+        VaultUserDetailsService nodeA = new VaultUserDetailsService(userRepository, registryA);
+        VaultUserDetailsService nodeB = new VaultUserDetailsService(userRepository, registryB);
+        UUID userId = newUser("revoked@example.com");
+        VerifiedToken before = jwtService.parse(jwtService.generateToken(userId, "revoked@example.com", "old"));
+        assertThat(nodeB.loadUserFromToken(before, null).getId()).isEqualTo(userId);
+
+        // iat has second precision; move past the second the old token was issued in.
+        Thread.sleep(1_000 - System.currentTimeMillis() % 1_000 + 10);
+        registryA.revokeTokensIssuedBefore(userId, Instant.now());
+        VerifiedToken after = jwtService.parse(jwtService.generateToken(userId, "revoked@example.com", "new"));
+
+        assertThatThrownBy(() -> nodeA.loadUserFromToken(before, null))
+            .isInstanceOf(UsernameNotFoundException.class);
+        registryB.refresh();
+        assertThatThrownBy(() -> nodeB.loadUserFromToken(before, null))
+            .isInstanceOf(UsernameNotFoundException.class);
+        assertThat(nodeB.loadUserFromToken(after, null).getId()).isEqualTo(userId);
+
+        // An older cutoff arriving late does not move it back.
+        registryA.revokeTokensIssuedBefore(userId, Instant.now().minusSeconds(60));
+        registryB.refresh();
+        assertThatThrownBy(() -> nodeB.loadUserFromToken(before, null))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void tokensOfDeletedUsersAreRejectedAfterRefresh() {
+        RevokedUserRegistry registry = new RevokedUserRegistry(userRepository, jwtProperties);
+        VaultUserDetailsService node = new VaultUserDetailsService(userRepository, registry);
+        UUID userId = newUser("deleted@example.com");
+        VerifiedToken token = jwtService.parse(jwtService.generateToken(userId, "deleted@example.com", "t"));
+        assertThat(node.loadUserFromToken(token, null).getId()).isEqualTo(userId);
+
+        userRepository.deleteById(userId);
+        registry.refresh();
+        assertThatThrownBy(() -> node.loadUserFromToken(token, null))
+            .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    private UUID newUser(String email) {
+        UserEntity user = new UserEntity();
+        user.setEmail(email);
+        user.setPasswordHash("unused");
+        user.setKdfSaltBase64("unused");
+        return userRepository.saveAndFlush(user).getId();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.minilastpass.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DomainNamesTest {
+
+    @Test
+    void plainRulesTakeTheLongestMatchingSuffix() {
+        assertThat(DomainNames.registrableDomain("login.shop.example.co.uk")).isEqualTo("example.co.uk");
+        assertThat(DomainNames.registrableDomain("a.b.example.com")).isEqualTo("example.com");
+        assertThat(DomainNames.registrableDomain("a.example.unlisted")).isEqualTo("example.unlisted");
+        assertThat(DomainNames.registrableDomain("co.uk")).isEqualTo("co.uk");
+    }
+
+    @Test
+    void wildcardAndExceptionRulesApply() {
+        // *.ck with !www.ck
+        assertThat(DomainNames.registrableDomain("login.shop.example.ck")).isEqualTo("shop.example.ck");
+        assertThat(DomainNames.registrableDomain("login.www.ck")).isEqualTo("www.ck");
+        // *.kawasaki.jp with !city.kawasaki.jp
+        assertThat(DomainNames.registrableDomain("a.b.kawasaki.jp")).isEqualTo("a.b.kawasaki.jp");
+        assertThat(DomainNames.registrableDomain("x.city.kawasaki.jp")).isEqualTo("city.kawasaki.jp");
+    }
+
+    @Test
+    void privateAndInternationalizedRulesApply() {
+        assertThat(DomainNames.registrableDomain("pages.alice.github.io")).isEqualTo("alice.github.io");
+        assertThat(DomainNames.registrableDomain("shop.example.\u516c\u53f8.cn")).isEqualTo("example.\u516c\u53f8.cn");
+        assertThat(DomainNames.registrableDomain("shop.example.xn--55qx5d.cn")).isEqualTo("example.xn--55qx5d.cn");
+    }
+}
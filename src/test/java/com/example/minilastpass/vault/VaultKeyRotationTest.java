@@ -0,0 +1,156 @@
+package com.example.minilastpass.vault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.minilastpass.auth.AuthService;
+import com.example.minilastpass.auth.ChangePasswordRequest;
+import com.example.minilastpass.auth.LoginRequest;
+import com.example.minilastpass.auth.SignupRequest;
+import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.security.DerivedKeyStore;
+import com.example.minilastpass.security.SecurityUser;
+import com.example.minilastpass.user.UserEntity;
+import com.example.minilastpass.user.UserRepository;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+// Not transactional: the rotation job runs on its own threads and must see committed rows, so the test
+// gets its own in-memory database instead of committing into the shared file one.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:key-rotation-test;DB_CLOSE_DELAY=-1")
+class VaultKeyRotationTest {
+
+    private static final String PASSWORD = "original-password";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private VaultService vaultService;
+
+    @Autowired
+    private VaultKeyRotation vaultKeyRotation;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CryptoService cryptoService;
+
+    @Autowired
+    private DerivedKeyStore derivedKeyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changePasswordRewrapsTheDataKeyWithoutReencryptingItems() {
+        String email = "rewrap-" + UUID.randomUUID() + "@example.com";
+        UUID id = signup(email);
+        SecurityUser before = new SecurityUser(id, email, null, derivedKeyStore.get(login(email, PASSWORD).tokenId()));
+        List<UUID> ids = createItems(before, 2);
+
+        ChangePasswordRequest request = new ChangePasswordRequest();
+        request.setCurrentPassword(PASSWORD);
+        request.setNewPassword("replacement-password");
+        AuthService.PasswordChangeResult result = authService.changePassword(before, null, request, null);
+
+        assertThat(result.rotation()).isNull();
+        assertThat(derivedKeyStore.get(result.tokenId())).isEqualTo(before.getVaultKey());
+        assertThat(derivedKeyStore.get(login(email, "replacement-password").tokenId())).isEqualTo(before.getVaultKey());
+        assertThat(vaultService.revealSecret(before, ids.get(1), "127.0.0.1").getSecret()).isEqualTo("secret-1");
+        assertThatThrownBy(() -> login(email, PASSWORD)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void loginMovesDirectlyKeyedVaultOntoADataKey() throws InterruptedException {
+        String email = "adopt-" + UUID.randomUUID() + "@example.com";
+        UUID id = signup(email);
+        List<UUID> ids = createItems(directlyKeyed(id, email), 3);
+
+        AuthService.LoginResult login = login(email, PASSWORD);
+        VaultKeyRotationProgress progress = awaitRotation(id);
+        assertThat(progress.isCompleted()).isTrue();
+        assertThat(progress.getRotated()).isEqualTo(3);
+        UserEntity user = userRepository.findById(id).orElseThrow();
+        assertThat(user.getVaultKeyVersion()).isEqualTo(2);
+        assertThat(user.getRetiredVaultKey()).isNull();
+
+        SecurityUser after = new SecurityUser(id, email, null, derivedKeyStore.get(login.tokenId()));
+        for (int i = 0; i < ids.size(); i++) {
+            assertThat(vaultService.revealSecret(after, ids.get(i), "127.0.0.1").getSecret()).isEqualTo("secret-" + i);
+        }
+    }
+
+    @Test
+    void interruptedRotationReadsThroughRetiredKeyAndResumesAtLogin() throws InterruptedException {
+        String email = "resume-" + UUID.randomUUID() + "@example.com";
+        UUID id = signup(email);
+        SecurityUser direct = directlyKeyed(id, email);
+        List<UUID> ids = createItems(direct, 2);
+
+        // The state a restart right after the data key was adopted leaves behind: no item rotated yet.
+        byte[] dataKey = cryptoService.newDataKey();
+        userRepository.adoptDataKey(id, cryptoService.wrapDataKey(direct.getVaultKey(), dataKey), 1,
+            vaultKeyRotation.wrapRetiredKey(id, 2, direct.getVaultKey(), dataKey));
+        SecurityUser after = new SecurityUser(id, email, null, dataKey);
+        assertThat(vaultService.revealSecret(after, ids.get(0), "127.0.0.1").getSecret()).isEqualTo("secret-0");
+
+        login(email, PASSWORD);
+        assertThat(awaitRotation(id).isCompleted()).isTrue();
+        assertThat(userRepository.findById(id).orElseThrow().getRetiredVaultKey()).isNull();
+        assertThat(vaultService.revealSecret(after, ids.get(1), "127.0.0.1").getSecret()).isEqualTo("secret-1");
+    }
+
+    private UUID signup(String email) {
+        SignupRequest signup = new SignupRequest();
+        signup.setEmail(email);
+        signup.setPassword(PASSWORD);
+        return authService.signup(signup).getId();
+    }
+
+    // An account as it was before envelope encryption: items sealed directly under the password-derived key.
+    private SecurityUser directlyKeyed(UUID id, String email) {
+        jdbcTemplate.update("update users set wrapped_data_key = null where id = ?", id);
+        byte[] salt = Base64.getDecoder().decode(userRepository.findById(id).orElseThrow().getKdfSaltBase64());
+        return new SecurityUser(id, email, null, cryptoService.deriveKey(PASSWORD.toCharArray(), salt));
+    }
+
+    private AuthService.LoginResult login(String email, String password) {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(email);
+        login.setPassword(password);
+        return authService.login(login);
+    }
+
+    private List<UUID> createItems(SecurityUser user, int count) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            VaultItemCreateRequest request = new VaultItemCreateRequest();
+            request.setTitle("Item " + i);
+            request.setUsername("user" + i);
+            request.setSecret("secret-" + i);
+            ids.add(vaultService.createItem(user, request).getId());
+        }
+        return ids;
+    }
+
+    private VaultKeyRotationProgress awaitRotation(UUID userId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        VaultKeyRotationProgress progress = vaultKeyRotation.progress(userId);
+        while ((progress == null || (!progress.isCompleted() && progress.getError() == null))
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            progress = vaultKeyRotation.progress(userId);
+        }
+        assertThat(progress).isNotNull();
+        return progress;
+    }
+}
@@ -3,18 +3,26 @@ package com.example.minilastpass.vault;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.example.minilastpass.auth.AuthService;
+import com.example.minilastpass.config.VaultProperties;
 import com.example.minilastpass.auth.LoginRequest;
 import com.example.minilastpass.auth.SignupRequest;
-import com.example.minilastpass.crypto.CryptoService;
+import com.example.minilastpass.security.DerivedKeyStore;
 import com.example.minilastpass.security.SecurityUser;
 import com.example.minilastpass.user.UserEntity;
 import com.example.minilastpass.user.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
 @SpringBootTest
@@ -31,7 +39,16 @@ class VaultServiceTest {
     private UserRepository userRepository;
 
     @Autowired
-    private CryptoService cryptoService;
+    private VaultTransferService vaultTransferService;
+
+    @Autowired
+    private DerivedKeyStore derivedKeyStore;
+
+    @Autowired
+    private VaultItemRepository vaultItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     private SecurityUser user;
     private final String password = "supersecurepass";
@@ -46,10 +63,9 @@ class VaultServiceTest {
             LoginRequest loginRequest = new LoginRequest();
             loginRequest.setEmail("vault@example.com");
             loginRequest.setPassword(password);
-            authService.login(loginRequest);
-            UserEntity entity = userRepository.findByEmailIgnoreCase("vault@example.com").orElseThrow();
-            byte[] salt = Base64.getDecoder().decode(entity.getKdfSaltBase64());
-            byte[] key = cryptoService.deriveKey(password.toCharArray(), salt);
+            String tokenId = authService.login(loginRequest).tokenId();
+            UserEntity entity = userRepository.findByEmail("vault@example.com").orElseThrow();
+            byte[] key = derivedKeyStore.get(tokenId);
             user = new SecurityUser(entity.getId(), entity.getEmail(), entity.getPasswordHash(), key);
         }
     }
@@ -77,4 +93,266 @@ class VaultServiceTest {
         List<VaultItemView> items = vaultService.listItems(user);
         assertThat(items).isEmpty();
     }
+
+    @Test
+    void bulkRevealReturnsSecretsInRequestOrderAndReportsUnknownIds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            VaultItemCreateRequest request = new VaultItemCreateRequest();
+            request.setTitle("Item " + i);
+            request.setUsername("user" + i);
+            request.setSecret("secret-" + i);
+            ids.add(vaultService.createItem(user, request).getId());
+        }
+        UUID unknown = UUID.randomUUID();
+
+        VaultRevealResponse response = vaultService.revealSecrets(user,
+            List.of(ids.get(2), unknown, ids.get(0), ids.get(1), ids.get(2)), "127.0.0.1");
+
+        assertThat(response.getItems()).extracting(RevealedSecret::getId)
+            .containsExactly(ids.get(2), ids.get(0), ids.get(1));
+        assertThat(response.getItems()).extracting(RevealedSecret::getSecret)
+            .containsExactly("secret-2", "secret-0", "secret-1");
+        assertThat(response.getNotFound()).containsExactly(unknown);
+    }
+
+    @Test
+    void listPageWalksItemsWithKeysetCursor() {
+        List<VaultItemView> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            VaultItemCreateRequest request = new VaultItemCreateRequest();
+            request.setTitle("Item " + i);
+            request.setUsername("user" + i);
+            request.setSecret("secret-" + i);
+            created.add(vaultService.createItem(user, request));
+        }
+
+        List<VaultItemView> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            VaultItemPage page = vaultService.listPage(user, cursor, 2);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).extracting(VaultItemView::getId)
+            .containsExactlyElementsOf(vaultService.listItems(user).stream().map(VaultItemView::getId).toList())
+            .containsExactlyInAnyOrderElementsOf(created.stream().map(VaultItemView::getId).toList());
+    }
+
+    @Test
+    void importThenExportRoundTripsThroughNdjson() throws Exception {
+        String ndjson = "{\"title\":\"A\",\"username\":\"alice\",\"secret\":\"s1\"}\n"
+            + "{\"title\":\"B\",\"username\":\"bob\",\"url\":\"https://b.example\",\"secret\":\"s2\"}\n";
+        VaultImportProgress imported = vaultTransferService.importItems(user,
+            new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+        assertThat(imported.isCompleted()).isTrue();
+        assertThat(imported.getImported()).isEqualTo(2);
+
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        assertThat(vaultTransferService.exportItems(user, exported)).isEqualTo(2);
+        String exportedText = exported.toString(StandardCharsets.UTF_8);
+        assertThat(exportedText.lines()).hasSize(2).allMatch(line -> line.contains("\"sealed\""));
+
+        VaultImportProgress reimported = vaultTransferService.importItems(user,
+            new ByteArrayInputStream(exported.toByteArray()), new ByteArrayOutputStream());
+        assertThat(reimported.getImported()).isEqualTo(2);
+        assertThat(vaultService.listItems(user)).hasSize(4);
+
+        VaultImportProgress rejected = vaultTransferService.importItems(user,
+            new ByteArrayInputStream("{\"title\":\"C\"}\n".getBytes(StandardCharsets.UTF_8)),
+            new ByteArrayOutputStream());
+        assertThat(rejected.isCompleted()).isFalse();
+        assertThat(rejected.getLine()).isEqualTo(1);
+    }
+
+    @Test
+    void batchAppliesMixedOperationsWithPerOperationResults() {
+        VaultItemCreateRequest seed = new VaultItemCreateRequest();
+        seed.setTitle("Seed");
+        seed.setUsername("seed");
+        seed.setSecret("seed-secret");
+        VaultItemView existing = vaultService.createItem(user, seed);
+
+        VaultBatchOperation create = new VaultBatchOperation();
+        create.setOp(VaultBatchOperation.Type.CREATE);
+        create.setTitle("Batch");
+        create.setUsername("batch-user");
+        create.setSecret("batch-secret");
+        VaultBatchOperation update = new VaultBatchOperation();
+        update.setOp(VaultBatchOperation.Type.UPDATE);
+        update.setId(existing.getId());
+        update.setTitle("Seed renamed");
+        VaultBatchOperation missing = new VaultBatchOperation();
+        missing.setOp(VaultBatchOperation.Type.DELETE);
+        missing.setId(UUID.randomUUID());
+        VaultBatchOperation invalid = new VaultBatchOperation();
+        invalid.setOp(VaultBatchOperation.Type.CREATE);
+        invalid.setTitle("No secret");
+
+        List<VaultBatchResult> results = vaultService.applyBatch(user, List.of(create, update, missing, invalid));
+        assertThat(results).extracting(VaultBatchResult::getStatus).containsExactly(201, 200, 404, 400);
+        assertThat(results.get(1).getItem().getTitle()).isEqualTo("Seed renamed");
+
+        VaultBatchOperation delete = new VaultBatchOperation();
+        delete.setOp(VaultBatchOperation.Type.DELETE);
+        delete.setId(existing.getId());
+        assertThat(vaultService.applyBatch(user, List.of(delete))).extracting(VaultBatchResult::getStatus)
+            .containsExactly(204);
+        assertThat(vaultService.listItems(user)).extracting(VaultItemView::getId)
+            .containsExactly(results.get(0).getId());
+    }
+
+    @Test
+    void changesReturnOnlyMutationsSinceRevisionIncludingTombstones() {
+        VaultItemCreateRequest first = new VaultItemCreateRequest();
+        first.setTitle("First");
+        first.setUsername("one");
+        first.setSecret("secret-1");
+        VaultItemView a = vaultService.createItem(user, first);
+        VaultItemCreateRequest second = new VaultItemCreateRequest();
+        second.setTitle("Second");
+        second.setUsername("two");
+        second.setSecret("secret-2");
+        VaultItemView b = vaultService.createItem(user, second);
+
+        VaultChanges initial = vaultService.listChanges(user, 0, 100);
+        assertThat(initial.getChanges()).extracting(VaultItemChange::getId).containsExactly(a.getId(), b.getId());
+
+        VaultItemUpdateRequest rename = new VaultItemUpdateRequest();
+        rename.setTitle("First renamed");
+        vaultService.updateItem(user, a.getId(), rename);
+        vaultService.deleteItem(user, b.getId());
+
+        VaultChanges delta = vaultService.listChanges(user, initial.getRevision(), 1);
+        assertThat(delta.isHasMore()).isTrue();
+        assertThat(delta.getChanges()).singleElement()
+            .satisfies(change -> assertThat(change.getItem().getTitle()).isEqualTo("First renamed"));
+        VaultChanges rest = vaultService.listChanges(user, delta.getRevision(), 1);
+        assertThat(rest.isHasMore()).isFalse();
+        assertThat(rest.getChanges()).singleElement()
+            .satisfies(change -> {
+                assertThat(change.getId()).isEqualTo(b.getId());
+                assertThat(change.isDeleted()).isTrue();
+                assertThat(change.getItem()).isNull();
+            });
+        assertThat(vaultService.listChanges(user, rest.getRevision(), 100).getChanges()).isEmpty();
+    }
+
+    @Test
+    void listETagChangesOnlyWhenVaultChanges() {
+        String empty = vaultService.listETag(user);
+        assertThat(empty).isEqualTo("\"v0-0\"");
+
+        VaultItemCreateRequest request = new VaultItemCreateRequest();
+        request.setTitle("Tagged");
+        request.setUsername("tag");
+        request.setSecret("tag-secret");
+        VaultItemView created = vaultService.createItem(user, request);
+        String afterCreate = vaultService.listETag(user);
+        assertThat(afterCreate).isNotEqualTo(empty).isEqualTo(vaultService.listETag(user));
+
+        vaultService.deleteItem(user, created.getId());
+        assertThat(vaultService.listETag(user)).isNotIn(empty, afterCreate);
+    }
+
+    @Test
+    void searchMatchesPrefixesAndDomainsAndTracksEdits() {
+        VaultItemCreateRequest bank = new VaultItemCreateRequest();
+        bank.setTitle("Corner Bank");
+        bank.setUsername("alice@mail.test");
+        bank.setUrl("https://login.example.com/signin");
+        bank.setSecret("bank-secret");
+        VaultItemView bankItem = vaultService.createItem(user, bank);
+        VaultItemCreateRequest mail = new VaultItemCreateRequest();
+        mail.setTitle("Mailbox");
+        mail.setUsername("alice");
+        mail.setUrl("example.com");
+        mail.setSecret("mail-secret");
+        VaultItemView mailItem = vaultService.createItem(user, mail);
+
+        assertThat(vaultService.search(user, "corn", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(bankItem.getId());
+        assertThat(vaultService.search(user, "example.com", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(bankItem.getId(), mailItem.getId());
+        assertThat(vaultService.search(user, "https://www.example.com", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(bankItem.getId(), mailItem.getId());
+
+        VaultItemPage first = vaultService.search(user, "alice", null, 1);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(vaultService.search(user, "alice", first.getNextCursor(), 1).getItems())
+            .extracting(VaultItemView::getId).containsExactly(mailItem.getId());
+
+        VaultItemUpdateRequest rename = new VaultItemUpdateRequest();
+        rename.setTitle("Credit Union");
+        vaultService.updateItem(user, bankItem.getId(), rename);
+        vaultService.deleteItem(user, mailItem.getId());
+        assertThat(vaultService.search(user, "corn", null, 10).getItems()).isEmpty();
+        assertThat(vaultService.search(user, "credit ali", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(bankItem.getId());
+        assertThat(vaultService.search(user, "example.com", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(bankItem.getId());
+    }
+
+    @Test
+    void matchReturnsItemsOnTheSameRegistrableDomain() {
+        VaultItemView shop = createWithUrl("Shop", "https://shop.example.co.uk/account");
+        VaultItemView root = createWithUrl("Root", "example.co.uk");
+        createWithUrl("Other", "https://other.co.uk");
+        createWithUrl("Pages", "https://alice.github.io");
+
+        assertThat(vaultService.match(user, "https://www.example.co.uk/login?next=/"))
+            .extracting(VaultItemView::getId).containsExactly(shop.getId(), root.getId());
+        assertThat(vaultService.match(user, "https://bob.github.io/")).isEmpty();
+        assertThat(vaultService.search(user, "login.shop.example.co.uk", null, 10).getItems())
+            .extracting(VaultItemView::getId).containsExactly(shop.getId(), root.getId());
+
+        vaultService.deleteItem(user, root.getId());
+        assertThat(vaultService.match(user, "example.co.uk"))
+            .extracting(VaultItemView::getId).containsExactly(shop.getId());
+    }
+
+    private VaultItemView createWithUrl(String title, String url) {
+        VaultItemCreateRequest request = new VaultItemCreateRequest();
+        request.setTitle(title);
+        request.setUsername("user");
+        request.setUrl(url);
+        request.setSecret("secret");
+        return vaultService.createItem(user, request);
+    }
+
+    @Test
+    void storageMigrationMovesPastMalformedLegacyRows() {
+        UUID bad = toLegacy(createWithUrl("Bad", null), "00000000-0000-0000-0000-000000000001");
+        UUID good = toLegacy(createWithUrl("Good", null), "00000000-0000-0000-0000-000000000002");
+        jdbcTemplate.update("update vault_items set encrypted_secret_base64 = 'AAAA', nonce_base64 = 'short' "
+            + "where id = ?", bad);
+        VaultProperties properties = new VaultProperties();
+        properties.setStorageMigrationBatchSize(1);
+
+        // With one row per batch the malformed row fills the first batch on its own.
+        new VaultStorageMigration(jdbcTemplate, properties).migrateInBackground();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from vault_items where id = ? "
+            + "and sealed_secret is not null", Integer.class, good)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from vault_items where id = ? "
+            + "and sealed_secret is null", Integer.class, bad)).isEqualTo(1);
+        assertThat(vaultService.revealSecret(user, good, "127.0.0.1").getSecret()).isEqualTo("secret");
+    }
+
+    // Rewrites an item into the legacy Base64 column pair under a fixed id, so tests control the id order.
+    private UUID toLegacy(VaultItemView item, String id) {
+        vaultItemRepository.flush();
+        byte[] sealed = jdbcTemplate.queryForObject("select sealed_secret from vault_items where id = ?",
+            byte[].class, item.getId());
+        UUID legacyId = UUID.fromString(id);
+        jdbcTemplate.update("update vault_items set id = ?, sealed_secret = null, encrypted_secret_base64 = ?, "
+                + "nonce_base64 = ? where id = ?", legacyId,
+            Base64.getEncoder().encodeToString(Arrays.copyOfRange(sealed, 12, sealed.length)),
+            Base64.getEncoder().encodeToString(Arrays.copyOfRange(sealed, 0, 12)), item.getId());
+        return legacyId;
+    }
 }